@@ -2,10 +2,14 @@ package pl.bclogic.pulsator4droid.library;
 
 import android.content.Context;
 import android.content.res.TypedArray;
-import android.graphics.Color;
+import android.graphics.Bitmap;
+import android.graphics.Bitmap.Config;
+import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Path;
+import android.os.SystemClock;
 import android.util.AttributeSet;
+import android.view.View;
 import android.widget.RelativeLayout;
 
 import androidx.annotation.ColorInt;
@@ -18,9 +22,49 @@ public abstract class PulsatorLayout extends RelativeLayout {
     public static final int INFINITE = 0;
     public static final float RADIUS_NONE = 0;
 
-    private static final int DEFAULT_COUNT = 4;
-    private static final int DEFAULT_COLOR = Color.rgb(0, 116, 193);
-    private static final int DEFAULT_DURATION = 7000;
+    /**
+     * All rings drawn with anti-aliasing at the full frame rate.
+     */
+    public static final int QUALITY_FULL = 0;
+    /**
+     * Only every other ring is drawn.
+     */
+    public static final int QUALITY_FEWER_RINGS = 1;
+    /**
+     * In addition, layouts that redraw themselves on every frame do so at a lower rate. Filled
+     * circle rings, otherwise animated by their views, are then redrawn that way too.
+     */
+    public static final int QUALITY_REDUCED_FRAME_RATE = 2;
+    /**
+     * In addition, the rings are drawn without anti-aliasing.
+     */
+    public static final int QUALITY_NO_ANTI_ALIAS = 3;
+    /**
+     * In addition, the rings are drawn from a pre-rendered sprite instead of the shape itself.
+     */
+    public static final int QUALITY_SPRITE = 4;
+
+    /**
+     * Filled pulses.
+     */
+    public static final int STYLE_FILL = 0;
+    /**
+     * Outlined rings, e.g. for a radar-like pulse with many rings.
+     */
+    public static final int STYLE_STROKE = 1;
+
+    /**
+     * When the burst pool is full, a new burst replaces the oldest one in flight.
+     */
+    public static final int BURST_DROP_OLDEST = 0;
+    /**
+     * When the burst pool is full, a new burst is dropped.
+     */
+    public static final int BURST_DROP_NEW = 1;
+
+    private static final int REDUCED_FRAME_RATE = 30;
+    private static final int DEFAULT_BURST_CAPACITY = 8;
+    private static final int DEFAULT_BURST_DURATION = 1000;
   
     protected int mCount;
     protected int mDuration;
@@ -28,6 +72,11 @@ public abstract class PulsatorLayout extends RelativeLayout {
     protected boolean mStartFromScratch;
     protected int mColor;
     protected int mInterpolator;
+    protected int mFillMode;
+    protected float mMaxScale;
+    protected int mStyle;
+    protected float mStrokeWidth;
+    protected float mStrokeTaper;
 
     protected PulseShape mPulseShape;
 
@@ -36,6 +85,48 @@ public abstract class PulsatorLayout extends RelativeLayout {
 
     protected boolean mIsStarted;
 
+    protected int mQualityLevel = QUALITY_FULL;
+
+    private PulseQualityGovernor mQualityGovernor;
+    private OnQualityChangeListener mOnQualityChangeListener;
+    private boolean mThermalThrottled;
+
+    private int mPulseWidth;
+    private int mPulseHeight;
+    private int mOverflowX;
+    private int mOverflowY;
+    private Bitmap mSprite;
+
+    private final PulseColors mRingColors;
+
+    private PulseBursts mBursts;
+    private final Paint mBurstPaint = new Paint();
+
+    private final Runnable mRedraw = new Runnable() {
+
+        @Override
+        public void run() {
+            invalidate();
+        }
+
+    };
+    private int mBurstDuration = DEFAULT_BURST_DURATION;
+
+    /**
+     * Interface definition for a callback to be invoked when the adaptive quality governor
+     * changes the quality level of the pulse.
+     */
+    public interface OnQualityChangeListener {
+
+        /**
+         * Called when the quality level has changed.
+         *
+         * @param pulsator The pulsator whose quality level has changed
+         * @param level The new quality level, one of the {@code QUALITY_*} constants
+         */
+        void onQualityChanged(PulsatorLayout pulsator, int level);
+    }
+
     /**
      * Simple constructor to use when creating a view from code.
      *
@@ -73,31 +164,53 @@ public abstract class PulsatorLayout extends RelativeLayout {
         TypedArray attr = context.getTheme().obtainStyledAttributes(
                 attrs, R.styleable.Pulsator4Droid, 0, 0);
 
-        mCount = DEFAULT_COUNT;
-        mDuration = DEFAULT_DURATION;
-        mColor = DEFAULT_COLOR;
-
         try {
-            mCount = attr.getInteger(R.styleable.Pulsator4Droid_pulse_count, DEFAULT_COUNT);
-            mDuration = attr.getInteger(R.styleable.Pulsator4Droid_pulse_duration,
-                    DEFAULT_DURATION);
-            mColor = attr.getColor(R.styleable.Pulsator4Droid_pulse_color, DEFAULT_COLOR);
+            // defaults and validation are shared with the other views drawing a pulse
+            PulseConfig config = new PulseConfig(context);
+            config.read(attr);
+            mCount = config.getCount();
+            mDuration = config.getDuration();
+            mColor = config.getColor();
+            mFillMode = config.getFillMode();
+            mMaxScale = config.getMaxScale();
+            mStyle = config.getStyle();
+            mStrokeWidth = config.getStrokeWidth();
+            mStrokeTaper = config.getStrokeTaper();
+            mRepeat = config.getRepeat();
+            mStartFromScratch = config.isStartFromScratch();
+            mInterpolator = config.getInterpolator();
+
+            // create paint
+            mPaint = new Paint();
+            mPaint.setAntiAlias(true);
+            mPaint.setStyle(Paint.Style.FILL);
+            mPaint.setColor(mColor);
+
+            mPulseShape = getPulseShape(mPaint);
+            applyFill(mFillMode, mColor);
+
+            // the styleable is resolved once for the whole class hierarchy
+            onReadAttributes(attr);
 
         } finally {
             attr.recycle();
         }
 
-        // create paint
-        mPaint = new Paint();
-        mPaint.setAntiAlias(true);
-        mPaint.setStyle(Paint.Style.FILL);
-        mPaint.setColor(mColor);
-
-        mPulseShape = getPulseShape(mPaint);
+        mRingColors = new PulseColors(mColor);
     }
 
     protected abstract PulseShape getPulseShape(Paint paint);
 
+    /**
+     * Called from the constructor with the resolved attributes, for subclasses to read their own
+     * instead of resolving the styleable again. The shape already exists at that point. As the
+     * constructor of the subclass has not run yet, fields with initializers must not be set here.
+     *
+     * @param attr The resolved {@code Pulsator4Droid} attributes
+     */
+    protected void onReadAttributes(TypedArray attr) {
+    }
+
     /**
      * Start pulse animation. If the start request comes and there are no animations to run
      * (e.g. the view has been re-attached to a view before (and animations cleared), it is
@@ -134,9 +247,7 @@ public abstract class PulsatorLayout extends RelativeLayout {
      * @param count Number of pulses
      */
     public void setCount(int count) {
-        if (count < 0) {
-            throw new IllegalArgumentException("Count cannot be negative");
-        }
+        PulseConfig.checkCount(count);
 
         if (count != mCount) {
             mCount = count;
@@ -157,12 +268,14 @@ public abstract class PulsatorLayout extends RelativeLayout {
     /**
      * Set single pulse duration.
      *
+     * <p>A circle pulse animated on the RenderThread only supports multiples of 100 ms up to
+     * 10 s, with any other duration it falls back to animating on the UI thread, see
+     * {@code CirclePulsatorLayout#setRenderThreadAnimationEnabled(boolean)}.
+     *
      * @param millis Pulse duration in milliseconds
      */
     public void setDuration(int millis) {
-        if (millis < 0) {
-            throw new IllegalArgumentException("Duration cannot be negative");
-        }
+        PulseConfig.checkDuration(millis);
 
         if (millis != mDuration) {
             mDuration = millis;
@@ -184,28 +297,624 @@ public abstract class PulsatorLayout extends RelativeLayout {
 
     /**
      * Sets the current color of the pulse effect in integer
-     * Takes effect immediately
+     * Takes effect immediately, ending any running color transition
      * Usage: Color.parseColor("<hex-value>") or getResources().getColor(R.color.colorAccent)
      *
      * @param color : an integer representation of color
      */
     public void setColor(@ColorInt int color) {
-        if (color != mColor) {
-            this.mColor = color;
+        if (color != mColor || mRingColors.isTransitioning()) {
+            mRingColors.set(color);
+            applyColor(color);
+        }
+    }
+
+    /**
+     * Smoothly change the color of the pulse effect, e.g. to follow the state of the app. The
+     * transition runs within the regular drawing of the pulse from a precomputed table of
+     * colors, without rebuilding the pulse. {@link #getColor()} returns the target color right
+     * away. Gradient fills switch to the target color at once.
+     *
+     * @param color Target color of the pulse effect
+     * @param durationMillis Duration of the transition in milliseconds
+     */
+    public void animateColor(@ColorInt int color, int durationMillis) {
+        if (durationMillis <= 0) {
+            setColor(color);
+            return;
+        }
+
+        mRingColors.animateTo(color, durationMillis, SystemClock.uptimeMillis());
+        applyColor(color);
+    }
+
+    /**
+     * Let the color of every ring run from the color of the pulse when the ring appears to the
+     * given color when it fades out, in addition to the fading itself. A ramp stops a circle
+     * pulse from being animated on the RenderThread.
+     *
+     * @param endColor Color of the rings at the end of their life
+     */
+    public void setRingColorRamp(@ColorInt int endColor) {
+        mRingColors.setRamp(true, endColor);
+        invalidateRings();
+    }
+
+    /**
+     * Give all the rings the color of the pulse again, see {@link #setRingColorRamp(int)}.
+     */
+    public void clearRingColorRamp() {
+        if (mRingColors.isRampEnabled()) {
+            mRingColors.setRamp(false, 0);
+            invalidateRings();
+        }
+    }
+
+    private void applyFill(int fillMode, int color) {
+        // shapes implementing only PulseShape have no fill modes
+        if (mPulseShape instanceof ScalablePulseShape) {
+            ((ScalablePulseShape) mPulseShape).setFill(fillMode, color);
+        }
+    }
+
+    private void applyColor(int color) {
+        mColor = color;
+        mPaint.setColor(color);
+        applyFill(mFillMode, color);
+        mSprite = null;
+
+        onColorChanged(color);
+        invalidateRings();
+    }
+
+    /**
+     * Called when the color of the pulse has changed or a transition to a new color has started.
+     *
+     * @param color The new color
+     */
+    protected void onColorChanged(@ColorInt int color) {
+    }
+
+    /**
+     * Advance the color transition, if any. To be called once per frame before
+     * {@link #getRingColor(float)}.
+     *
+     * @return <code>true</code> if the colors are still changing and another frame is needed
+     */
+    protected boolean updateRingColors() {
+        return mRingColors.update(SystemClock.uptimeMillis());
+    }
+
+    /**
+     * Get the color of a ring at the given point of its life, taking the color transition and
+     * the ring color ramp into account.
+     *
+     * @param phase Progress of the ring, between 0 and 1
+     * @return ARGB color of the ring, before fading
+     */
+    @ColorInt
+    protected int getRingColor(float phase) {
+        return mRingColors.getRingColor(phase);
+    }
+
+    /**
+     * Whether the ring colors change from frame to frame, either because of a color transition
+     * or because of the ring color ramp.
+     *
+     * @return <code>true</code> if the rings need to be redrawn on every frame
+     */
+    protected boolean isRingColorAnimated() {
+        return mRingColors.isTransitioning() || mRingColors.isRampEnabled();
+    }
+
+    /**
+     * Whether the rings get their color from the ring color ramp, see
+     * {@link #setRingColorRamp(int)}.
+     *
+     * @return <code>true</code> if a ramp is set
+     */
+    protected boolean isRingColorRampEnabled() {
+        return mRingColors.isRampEnabled();
+    }
+
+    /**
+     * Get the scale the pulses grow to.
+     *
+     * @return Scale of the largest pulse relative to the content
+     */
+    public float getMaxScale() {
+        return mMaxScale;
+    }
+
+    /**
+     * Set the scale the pulses grow to, relative to the content of the layout. With a scale
+     * above 1 the pulses grow beyond the content, e.g. around an avatar. The layout then reserves
+     * the room for them itself: it reports a size large enough for the largest pulse and lays
+     * out its children centered in the content area, so no ancestor has to disable clipping.
+     * When the size of the layout is exact, e.g. a fixed size or {@code match_parent}, it cannot
+     * grow: the content shrinks to that size divided by the scale instead.
+     *
+     * @param maxScale Scale of the largest pulse, 1 by default
+     */
+    public void setMaxScale(float maxScale) {
+        PulseConfig.checkMaxScale(maxScale);
+
+        if (maxScale != mMaxScale) {
+            mMaxScale = maxScale;
+            requestLayout();
+            reset();
+            invalidate();
+        }
+    }
+
+    /**
+     * Get the horizontal room reserved on either side of the content for pulses growing beyond
+     * it, see {@link #setMaxScale(float)}.
+     *
+     * @return Width of the room in pixels
+     */
+    protected int getOverflowX() {
+        return mOverflowX;
+    }
+
+    /**
+     * Get the vertical room reserved on either side of the content for pulses growing beyond
+     * it, see {@link #setMaxScale(float)}.
+     *
+     * @return Height of the room in pixels
+     */
+    protected int getOverflowY() {
+        return mOverflowY;
+    }
+
+    /**
+     * Get how the pulses are filled.
+     *
+     * @return One of the {@code FILL_*} constants of {@link PulseFill}
+     */
+    public int getFillMode() {
+        return mFillMode;
+    }
+
+    /**
+     * Set how the pulses are filled: with a flat color (the default), a radial gradient or a
+     * flat color fading out at the edge. The gradient is built once per color change and reused
+     * for every ring and frame. A gradient fill stops a circle pulse from being animated on the
+     * RenderThread.
+     *
+     * @param fillMode One of the {@code FILL_*} constants of {@link PulseFill}
+     */
+    public void setFillMode(int fillMode) {
+        PulseConfig.checkFillMode(fillMode);
+
+        if (fillMode != mFillMode) {
+            applyFill(fillMode, mColor);
+            mFillMode = fillMode;
+            mSprite = null;
+            invalidateRings();
+        }
+    }
+
+    /**
+     * Get whether the pulses are filled or outlined.
+     *
+     * @return {@link #STYLE_FILL} or {@link #STYLE_STROKE}
+     */
+    public int getStyle() {
+        return mStyle;
+    }
+
+    /**
+     * Set whether the pulses are filled (the default) or outlined. The outlines of all the rings
+     * are batched per frame, so the number of draw calls does not grow with
+     * {@link #setCount(int)}, which makes many rings affordable. Circles are drawn as a single
+     * path whose radial gradient carries the ring color and the fading. Other shapes are drawn
+     * as one path per quantized alpha level, at most eight, each filled with the average color
+     * of its rings. The fill mode only applies to filled rings.
+     *
+     * @param style {@link #STYLE_FILL} or {@link #STYLE_STROKE}
+     */
+    public void setStyle(int style) {
+        PulseConfig.checkStyle(style);
+
+        if (style != mStyle) {
+            mStyle = style;
+            reset();
+            invalidate();
+        }
+    }
+
+    public float getStrokeWidth() {
+        return mStrokeWidth;
+    }
+
+    /**
+     * Set the width of outlined rings, see {@link #setStyle(int)}. Defaults to 2dp.
+     *
+     * @param width Width in pixels
+     */
+    public void setStrokeWidth(float width) {
+        PulseConfig.checkStrokeWidth(width);
+
+        if (width != mStrokeWidth) {
+            mStrokeWidth = width;
+            invalidateRings();
+        }
+    }
 
-            if (mPaint != null) {
-                mPaint.setColor(color);
+    public float getStrokeTaper() {
+        return mStrokeTaper;
+    }
+
+    /**
+     * Let outlined rings get thinner as they grow. A ring starts at the full stroke width and
+     * ends at the width reduced by the given fraction, e.g. 1 tapers it down to nothing.
+     *
+     * @param taper Fraction between 0 (no tapering, the default) and 1
+     */
+    public void setStrokeTaper(float taper) {
+        PulseConfig.checkStrokeTaper(taper);
+
+        if (taper != mStrokeTaper) {
+            mStrokeTaper = taper;
+            invalidateRings();
+        }
+    }
+
+    /**
+     * Get the width of an outlined ring at the given point of its life, taking the taper into
+     * account.
+     *
+     * @param phase Progress of the ring, between 0 and 1
+     * @return Width in pixels
+     */
+    protected float getRingStrokeWidth(float phase) {
+        return mStrokeWidth * (1 - mStrokeTaper * phase);
+    }
+
+    /**
+     * Redraw the rings after a change of their appearance.
+     */
+    protected void invalidateRings() {
+        invalidate();
+    }
+
+    /**
+     * Enable or disable the adaptive quality governor. When enabled, the frame time of the UI
+     * thread is watched while the pulse is running and the quality of the pulse is stepped down
+     * (see the {@code QUALITY_*} constants) when frames are being missed, and back up once there
+     * is headroom again. The pulse keeps its phase during the transitions.
+     *
+     * <p>Disabled by default. Disabling it restores {@link #QUALITY_FULL}.
+     *
+     * @param enabled <code>true</code> to let the pulse adapt its quality
+     */
+    public void setAdaptiveQualityEnabled(boolean enabled) {
+        if (enabled == (mQualityGovernor != null)) {
+            return;
+        }
+
+        if (enabled) {
+            mQualityGovernor = new PulseQualityGovernor(this);
+            mQualityGovernor.setThermalThrottled(mThermalThrottled);
+            if (isAttachedToWindow()) {
+                mQualityGovernor.start();
+            }
+        } else {
+            mQualityGovernor.stop();
+            mQualityGovernor = null;
+            setQualityLevel(QUALITY_FULL);
+        }
+    }
+
+    public boolean isAdaptiveQualityEnabled() {
+        return mQualityGovernor != null;
+    }
+
+    /**
+     * Hint the adaptive quality governor that the device is under thermal pressure, e.g. from
+     * {@code PowerManager#getCurrentThermalStatus()} on devices that support it. While set, the
+     * quality does not go above {@link #QUALITY_NO_ANTI_ALIAS}. Battery saver is picked up
+     * automatically and keeps the quality at {@link #QUALITY_REDUCED_FRAME_RATE} or lower.
+     *
+     * @param throttled <code>true</code> when the device is being thermally throttled
+     */
+    public void setThermalThrottled(boolean throttled) {
+        mThermalThrottled = throttled;
+        if (mQualityGovernor != null) {
+            mQualityGovernor.setThermalThrottled(throttled);
+        }
+    }
+
+    /**
+     * Get the quality level the pulse is currently drawn with.
+     *
+     * @return One of the {@code QUALITY_*} constants
+     */
+    public int getQualityLevel() {
+        return mQualityLevel;
+    }
+
+    public void setOnQualityChangeListener(OnQualityChangeListener listener) {
+        mOnQualityChangeListener = listener;
+    }
+
+    void setQualityLevel(int level) {
+        if (level == mQualityLevel) {
+            return;
+        }
+
+        mQualityLevel = level;
+        mPaint.setAntiAlias(level < QUALITY_NO_ANTI_ALIAS);
+        if (level < QUALITY_SPRITE) {
+            mSprite = null;
+        }
+
+        onQualityChanged(level);
+        invalidate();
+
+        if (mOnQualityChangeListener != null) {
+            mOnQualityChangeListener.onQualityChanged(this, level);
+        }
+    }
+
+    /**
+     * Called when the quality level has changed. Implementations apply whatever is not already
+     * taken care of by {@link #isRingDrawn(int)}, {@link #getRedrawDelay()} and the paint.
+     *
+     * @param level The new quality level
+     */
+    protected void onQualityChanged(int level) {
+    }
+
+    /**
+     * Whether the ring of the given index should be drawn at the current quality level.
+     *
+     * @param index Index of the ring
+     * @return <code>true</code> if the ring is to be drawn
+     */
+    protected boolean isRingDrawn(int index) {
+        return mQualityLevel < QUALITY_FEWER_RINGS || index % 2 == 0;
+    }
+
+    /**
+     * Get the delay before the next frame for layouts that redraw themselves on every frame.
+     *
+     * @return Delay in milliseconds, 0 for the next frame
+     */
+    protected long getRedrawDelay() {
+        return mQualityLevel < QUALITY_REDUCED_FRAME_RATE ? 0 : 1000 / REDUCED_FRAME_RATE;
+    }
+
+    /**
+     * Schedule the next frame of a layout that redraws itself on every frame, after
+     * {@link #getRedrawDelay()}. A pending frame is replaced rather than added to, so redraws
+     * triggered from elsewhere (bursts, color changes, ...) do not start additional chains of
+     * frames running faster than the frame rate of the current quality level.
+     */
+    protected void scheduleRedraw() {
+        removeCallbacks(mRedraw);
+        postOnAnimationDelayed(mRedraw, getRedrawDelay());
+    }
+
+    /**
+     * Get the pulse shape pre-rendered at full size and full opacity, to be used at
+     * {@link #QUALITY_SPRITE}.
+     *
+     * @return The sprite or <code>null</code> if the sprite is not in use or the size is unknown
+     */
+    protected Bitmap getPulseSprite() {
+        if (mQualityLevel < QUALITY_SPRITE || mPulseWidth <= 0 || mPulseHeight <= 0) {
+            return null;
+        }
+
+        if (mSprite == null) {
+            mSprite = Bitmap.createBitmap(mPulseWidth, mPulseHeight, Config.ARGB_8888);
+
+            // the sprite is rendered once, so it gets the full quality
+            boolean antiAlias = mPaint.isAntiAlias();
+            mPaint.setAntiAlias(true);
+            mPulseShape.draw(new Canvas(mSprite));
+            mPaint.setAntiAlias(antiAlias);
+        }
+        return mSprite;
+    }
+
+    /**
+     * Fire a one-shot pulse centered at the given point, e.g. where the view has been tapped.
+     * The burst grows to the size of the pulse and fades out. Bursts are taken from a bounded
+     * pool (see {@link #setBurstCapacity(int)}), firing them does not allocate.
+     *
+     * @param x Horizontal position of the burst center in pixels, relative to this view
+     * @param y Vertical position of the burst center in pixels, relative to this view
+     * @return <code>false</code> if the burst has been dropped because the pool was full, or
+     *     because the shape is not a {@link ScalablePulseShape}
+     */
+    public boolean burst(float x, float y) {
+        if (!(mPulseShape instanceof ScalablePulseShape)) {
+            return false;
+        }
+        if (mBursts == null) {
+            mBursts = new PulseBursts(DEFAULT_BURST_CAPACITY);
+        }
+
+        boolean fired = mBursts.fire(x, y, SystemClock.uptimeMillis());
+        if (fired) {
+            invalidate();
+        }
+        return fired;
+    }
+
+    /**
+     * Set the maximum number of bursts in flight at the same time. Bursts in flight are dropped.
+     * Defaults to 8.
+     *
+     * @param capacity Maximum number of bursts
+     */
+    public void setBurstCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+
+        if (mBursts == null) {
+            mBursts = new PulseBursts(capacity);
+        } else if (capacity != mBursts.getCapacity()) {
+            mBursts.setCapacity(capacity);
+            invalidate();
+        }
+    }
+
+    public int getBurstCapacity() {
+        return mBursts != null ? mBursts.getCapacity() : DEFAULT_BURST_CAPACITY;
+    }
+
+    /**
+     * Set what happens to a burst fired while the pool is full.
+     *
+     * @param policy {@link #BURST_DROP_OLDEST} (the default) or {@link #BURST_DROP_NEW}
+     */
+    public void setBurstOverflowPolicy(int policy) {
+        if (policy != BURST_DROP_OLDEST && policy != BURST_DROP_NEW) {
+            throw new IllegalArgumentException("Unknown overflow policy " + policy);
+        }
+
+        if (mBursts == null) {
+            mBursts = new PulseBursts(DEFAULT_BURST_CAPACITY);
+        }
+        mBursts.setOverflowPolicy(policy);
+    }
+
+    public int getBurstOverflowPolicy() {
+        return mBursts != null ? mBursts.getOverflowPolicy() : BURST_DROP_OLDEST;
+    }
+
+    /**
+     * Set duration of a single burst.
+     *
+     * @param millis Burst duration in milliseconds
+     */
+    public void setBurstDuration(int millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        mBurstDuration = millis;
+    }
+
+    public int getBurstDuration() {
+        return mBurstDuration;
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        // bursts go below the children, whatever is inside the pulsator stays on top
+        if (mBursts != null && !mBursts.isEmpty()
+                && mPulseShape instanceof ScalablePulseShape) {
+            mBurstPaint.set(mPaint);
+            mBurstPaint.setColor(mRingColors.getColor());
+            if (mStyle == STYLE_STROKE) {
+                mBurstPaint.setStyle(Paint.Style.STROKE);
+                mBurstPaint.setStrokeWidth(mStrokeWidth);
+                mBurstPaint.setShader(null);
             }
+            boolean inFlight = mBursts.draw(canvas, (ScalablePulseShape) mPulseShape,
+                    mBurstPaint, mPulseWidth, mPulseHeight, mBurstDuration,
+                    SystemClock.uptimeMillis());
+            if (inFlight) {
+                postInvalidateOnAnimation();
+            }
+        }
+
+        super.dispatchDraw(canvas);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+
+        if (mQualityGovernor != null) {
+            mQualityGovernor.start();
         }
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+
+        if (mQualityGovernor != null) {
+            mQualityGovernor.stop();
+        }
+        if (mBursts != null) {
+            mBursts.clear();
+        }
+        removeCallbacks(mRedraw);
+    }
+
     @Override
     public void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (mMaxScale > 1) {
+            measureWithOverflow(widthMeasureSpec, heightMeasureSpec);
+            return;
+        }
+        mOverflowX = 0;
+        mOverflowY = 0;
+
         int width = MeasureSpec.getSize(widthMeasureSpec) - getPaddingLeft() - getPaddingRight();
         int height = MeasureSpec.getSize(heightMeasureSpec) - getPaddingTop() - getPaddingBottom();
 
-        mPulseShape.setSize(width, height);
+        setPulseSize(width, height);
 
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
     }
+
+    /**
+     * Measure the content in the size left after reserving room for the pulses growing beyond
+     * it, then report the content grown by that room.
+     */
+    private void measureWithOverflow(int widthMeasureSpec, int heightMeasureSpec) {
+        super.onMeasure(shrinkMeasureSpec(widthMeasureSpec), shrinkMeasureSpec(heightMeasureSpec));
+
+        int contentWidth = getMeasuredWidth();
+        int contentHeight = getMeasuredHeight();
+        int width = resolveSize((int) Math.ceil(contentWidth * mMaxScale), widthMeasureSpec);
+        int height = resolveSize((int) Math.ceil(contentHeight * mMaxScale), heightMeasureSpec);
+
+        mOverflowX = Math.max(0, (width - contentWidth) / 2);
+        mOverflowY = Math.max(0, (height - contentHeight) / 2);
+        setMeasuredDimension(width, height);
+
+        setPulseSize(contentWidth - getPaddingLeft() - getPaddingRight(),
+                contentHeight - getPaddingTop() - getPaddingBottom());
+    }
+
+    private int shrinkMeasureSpec(int measureSpec) {
+        int mode = MeasureSpec.getMode(measureSpec);
+        if (mode == MeasureSpec.UNSPECIFIED) {
+            return measureSpec;
+        }
+        return MeasureSpec.makeMeasureSpec(
+                (int) (MeasureSpec.getSize(measureSpec) / mMaxScale), mode);
+    }
+
+    private void setPulseSize(int width, int height) {
+        if (width != mPulseWidth || height != mPulseHeight) {
+            mPulseWidth = width;
+            mPulseHeight = height;
+            mSprite = null;
+        }
+        mPulseShape.setSize(width, height);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+
+        // the children have been laid out in the content area, center it in the layout
+        if (mOverflowX != 0 || mOverflowY != 0) {
+            for (int i = 0; i < getChildCount(); i++) {
+                View child = getChildAt(i);
+                child.offsetLeftAndRight(mOverflowX);
+                child.offsetTopAndBottom(mOverflowY);
+            }
+        }
+    }
 }
@@ -0,0 +1,138 @@
+package pl.bclogic.pulsator4droid.library;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+/**
+ * Bounded pool of one-shot pulse rings fired at arbitrary points of a {@link PulsatorLayout}.
+ *
+ * <p>All bursts share the same duration, so they finish in the order they were fired. The pool
+ * is therefore a ring buffer of parallel arrays: firing writes at the tail, finished bursts are
+ * released from the head, and nothing is allocated after the pool has been created.
+ */
+class PulseBursts {
+
+    private int mOverflowPolicy = PulsatorLayout.BURST_DROP_OLDEST;
+
+    private float[] mX;
+    private float[] mY;
+    private long[] mStartTime;
+    private int mHead;
+    private int mSize;
+
+    PulseBursts(int capacity) {
+        setCapacity(capacity);
+    }
+
+    /**
+     * Set the maximum number of bursts in flight. Bursts in flight are dropped.
+     *
+     * @param capacity Maximum number of bursts
+     */
+    void setCapacity(int capacity) {
+        mX = new float[capacity];
+        mY = new float[capacity];
+        mStartTime = new long[capacity];
+        mHead = 0;
+        mSize = 0;
+    }
+
+    int getCapacity() {
+        return mX.length;
+    }
+
+    void setOverflowPolicy(int policy) {
+        mOverflowPolicy = policy;
+    }
+
+    int getOverflowPolicy() {
+        return mOverflowPolicy;
+    }
+
+    boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Fire a burst.
+     *
+     * @param x Horizontal position of the burst center
+     * @param y Vertical position of the burst center
+     * @param now Current animation time in milliseconds
+     * @return <code>false</code> if the burst has been dropped
+     */
+    boolean fire(float x, float y, long now) {
+        int capacity = mX.length;
+        if (capacity == 0) {
+            return false;
+        }
+
+        if (mSize == capacity) {
+            if (mOverflowPolicy == PulsatorLayout.BURST_DROP_NEW) {
+                return false;
+            }
+            // drop the oldest burst to make room
+            mHead = (mHead + 1) % capacity;
+            mSize--;
+        }
+
+        int index = (mHead + mSize) % capacity;
+        mX[index] = x;
+        mY[index] = y;
+        mStartTime[index] = now;
+        mSize++;
+        return true;
+    }
+
+    void clear() {
+        mHead = 0;
+        mSize = 0;
+    }
+
+    /**
+     * Draw the bursts in flight and release the finished ones.
+     *
+     * @param canvas Canvas to draw on
+     * @param shape Shape of the rings, sized to the full ring
+     * @param paint Paint to draw the bursts with, its alpha is changed during the call
+     * @param width Width of the full ring
+     * @param height Height of the full ring
+     * @param duration Duration of a burst in milliseconds
+     * @param now Current animation time in milliseconds
+     * @return <code>true</code> if there are bursts left in flight
+     */
+    boolean draw(Canvas canvas, ScalablePulseShape shape, Paint paint, float width, float height,
+            int duration, long now) {
+        int capacity = mX.length;
+
+        // bursts finish in the order they have been fired
+        while (mSize > 0 && now - mStartTime[mHead] >= duration) {
+            mHead = (mHead + 1) % capacity;
+            mSize--;
+        }
+
+        int color = paint.getColor();
+        int alpha = Color.alpha(color);
+
+        for (int i = 0; i < mSize; i++) {
+            int index = (mHead + i) % capacity;
+            float progress = Math.max(0, now - mStartTime[index]) / (float) duration;
+            if (progress <= 0) {
+                continue;
+            }
+
+            paint.setAlpha((int) (alpha * (1 - progress)));
+
+            // the shape is centered at half its size, move that onto the burst point
+            float left = mX[index] - width * 0.5f;
+            float top = mY[index] - height * 0.5f;
+            canvas.translate(left, top);
+            shape.draw(canvas, progress, paint);
+            canvas.translate(-left, -top);
+        }
+
+        paint.setColor(color);
+        return mSize > 0;
+    }
+}
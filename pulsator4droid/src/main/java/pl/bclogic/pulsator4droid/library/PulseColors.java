@@ -0,0 +1,138 @@
+package pl.bclogic.pulsator4droid.library;
+
+import android.graphics.Color;
+
+/**
+ * Colors of the rings of a {@link PulsatorLayout}: the base color, optionally in transition to a
+ * new one, and an optional ramp along the life of a ring. Both are looked up from ARGB tables
+ * which are filled in place, so neither a transition nor the ramp allocates.
+ */
+class PulseColors {
+
+    private static final int STEPS = 64;
+
+    private final int[] mTransition = new int[STEPS + 1];
+    private final int[] mRamp = new int[STEPS + 1];
+
+    private int mColor;
+
+    private boolean mTransitioning;
+    private long mTransitionStart;
+    private int mTransitionDuration;
+
+    private boolean mRampEnabled;
+    private int mRampEndColor;
+    private int mRampBaseColor;
+
+    PulseColors(int color) {
+        mColor = color;
+    }
+
+    /**
+     * Switch to the given color at once, ending any transition.
+     *
+     * @param color New base color
+     */
+    void set(int color) {
+        mTransitioning = false;
+        mColor = color;
+        updateRamp();
+    }
+
+    /**
+     * Start a transition from the current color to the given one.
+     *
+     * @param color Target base color
+     * @param duration Duration of the transition in milliseconds
+     * @param now Current time in milliseconds
+     */
+    void animateTo(int color, int duration, long now) {
+        fill(mTransition, mColor, color);
+        mTransitioning = true;
+        mTransitionStart = now;
+        mTransitionDuration = duration;
+    }
+
+    void setRamp(boolean enabled, int endColor) {
+        mRampEnabled = enabled;
+        mRampEndColor = endColor;
+        // force a rebuild for the current base color
+        mRampBaseColor = ~mColor;
+        updateRamp();
+    }
+
+    boolean isRampEnabled() {
+        return mRampEnabled;
+    }
+
+    boolean isTransitioning() {
+        return mTransitioning;
+    }
+
+    /**
+     * Advance the transition to the given time.
+     *
+     * @param now Current time in milliseconds
+     * @return <code>true</code> if the transition is still running
+     */
+    boolean update(long now) {
+        if (!mTransitioning) {
+            return false;
+        }
+
+        long step = (now - mTransitionStart) * STEPS / mTransitionDuration;
+        if (step >= STEPS) {
+            mTransitioning = false;
+            step = STEPS;
+        }
+        mColor = mTransition[(int) Math.max(0, step)];
+        updateRamp();
+        return mTransitioning;
+    }
+
+    /**
+     * Get the current base color.
+     *
+     * @return ARGB color
+     */
+    int getColor() {
+        return mColor;
+    }
+
+    /**
+     * Get the color of a ring at the given point of its life.
+     *
+     * @param phase Progress of the ring, between 0 and 1
+     * @return ARGB color
+     */
+    int getRingColor(float phase) {
+        if (!mRampEnabled) {
+            return mColor;
+        }
+        int index = (int) (phase * STEPS);
+        return mRamp[index < 0 ? 0 : index > STEPS ? STEPS : index];
+    }
+
+    private void updateRamp() {
+        // the ramp only needs to be rebuilt when the base color has moved to another step
+        if (mRampEnabled && mRampBaseColor != mColor) {
+            mRampBaseColor = mColor;
+            fill(mRamp, mColor, mRampEndColor);
+        }
+    }
+
+    private static void fill(int[] table, int from, int to) {
+        for (int i = 0; i <= STEPS; i++) {
+            float fraction = (float) i / STEPS;
+            table[i] = Color.argb(
+                    lerp(Color.alpha(from), Color.alpha(to), fraction),
+                    lerp(Color.red(from), Color.red(to), fraction),
+                    lerp(Color.green(from), Color.green(to), fraction),
+                    lerp(Color.blue(from), Color.blue(to), fraction));
+        }
+    }
+
+    private static int lerp(int from, int to, float fraction) {
+        return Math.round(from + (to - from) * fraction);
+    }
+}
@@ -0,0 +1,274 @@
+package pl.bclogic.pulsator4droid.library;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+
+import androidx.annotation.ColorInt;
+
+/**
+ * Configuration of a pulse, shared by the views drawing one: the default values, their
+ * validation and the reading of the {@code Pulsator4Droid} attributes. Every setter and
+ * {@link #read(TypedArray)} throw an {@link IllegalArgumentException} for an invalid value, so
+ * that a value is checked the same way whether it comes from XML or from code.
+ */
+public class PulseConfig {
+
+    public static final int DEFAULT_COUNT = 4;
+    public static final int DEFAULT_COLOR = Color.rgb(0, 116, 193);
+    public static final int DEFAULT_DURATION = 7000;
+    public static final int DEFAULT_REPEAT = PulsatorLayout.INFINITE;
+    public static final boolean DEFAULT_START_FROM_SCRATCH = true;
+    // linear, see CirclePulsatorLayout#INTERP_LINEAR
+    public static final int DEFAULT_INTERPOLATOR = 0;
+    public static final float DEFAULT_MAX_SCALE = 1f;
+    public static final int DEFAULT_FILL_MODE = PulseFill.FILL_SOLID;
+    public static final int DEFAULT_STYLE = PulsatorLayout.STYLE_FILL;
+    public static final float DEFAULT_STROKE_WIDTH_DP = 2;
+    public static final float DEFAULT_STROKE_TAPER = 0;
+
+    private int mCount = DEFAULT_COUNT;
+    private int mDuration = DEFAULT_DURATION;
+    private int mColor = DEFAULT_COLOR;
+    private int mRepeat = DEFAULT_REPEAT;
+    private boolean mStartFromScratch = DEFAULT_START_FROM_SCRATCH;
+    private int mInterpolator = DEFAULT_INTERPOLATOR;
+    private float mMaxScale = DEFAULT_MAX_SCALE;
+    private int mFillMode = DEFAULT_FILL_MODE;
+    private int mStyle = DEFAULT_STYLE;
+    private float mStrokeWidth;
+    private float mStrokeTaper = DEFAULT_STROKE_TAPER;
+
+    /**
+     * Create a configuration with the default values.
+     *
+     * @param context Context to get the density of the default stroke width from
+     */
+    public PulseConfig(Context context) {
+        mStrokeWidth = DEFAULT_STROKE_WIDTH_DP * context.getResources().getDisplayMetrics().density;
+    }
+
+    /**
+     * Create a copy of a configuration.
+     *
+     * @param config Configuration to copy
+     */
+    public PulseConfig(PulseConfig config) {
+        set(config);
+    }
+
+    /**
+     * Copy all the values of another configuration.
+     *
+     * @param config Configuration to copy
+     */
+    public void set(PulseConfig config) {
+        mCount = config.mCount;
+        mDuration = config.mDuration;
+        mColor = config.mColor;
+        mRepeat = config.mRepeat;
+        mStartFromScratch = config.mStartFromScratch;
+        mInterpolator = config.mInterpolator;
+        mMaxScale = config.mMaxScale;
+        mFillMode = config.mFillMode;
+        mStyle = config.mStyle;
+        mStrokeWidth = config.mStrokeWidth;
+        mStrokeTaper = config.mStrokeTaper;
+    }
+
+    /**
+     * Read the pulse attributes, the values of attributes which are not set are kept.
+     *
+     * @param attr The resolved {@code Pulsator4Droid} attributes
+     */
+    public void read(TypedArray attr) {
+        setCount(attr.getInteger(R.styleable.Pulsator4Droid_pulse_count, mCount));
+        setDuration(attr.getInteger(R.styleable.Pulsator4Droid_pulse_duration, mDuration));
+        setColor(attr.getColor(R.styleable.Pulsator4Droid_pulse_color, mColor));
+        setRepeat(attr.getInteger(R.styleable.Pulsator4Droid_pulse_repeat, mRepeat));
+        setStartFromScratch(attr.getBoolean(R.styleable.Pulsator4Droid_pulse_startFromScratch,
+                mStartFromScratch));
+        setInterpolator(attr.getInteger(R.styleable.Pulsator4Droid_pulse_interpolator,
+                mInterpolator));
+        setMaxScale(attr.getFloat(R.styleable.Pulsator4Droid_pulse_maxScale, mMaxScale));
+        setFillMode(attr.getInt(R.styleable.Pulsator4Droid_pulse_fill, mFillMode));
+        setStyle(attr.getInt(R.styleable.Pulsator4Droid_pulse_style, mStyle));
+        setStrokeWidth(attr.getDimension(R.styleable.Pulsator4Droid_pulse_strokeWidth,
+                mStrokeWidth));
+        setStrokeTaper(attr.getFloat(R.styleable.Pulsator4Droid_pulse_strokeTaper,
+                mStrokeTaper));
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    public void setCount(int count) {
+        checkCount(count);
+        mCount = count;
+    }
+
+    public int getDuration() {
+        return mDuration;
+    }
+
+    public void setDuration(int millis) {
+        checkDuration(millis);
+        mDuration = millis;
+    }
+
+    @ColorInt
+    public int getColor() {
+        return mColor;
+    }
+
+    public void setColor(@ColorInt int color) {
+        mColor = color;
+    }
+
+    public int getRepeat() {
+        return mRepeat;
+    }
+
+    public void setRepeat(int repeat) {
+        mRepeat = repeat;
+    }
+
+    public boolean isStartFromScratch() {
+        return mStartFromScratch;
+    }
+
+    public void setStartFromScratch(boolean startFromScratch) {
+        mStartFromScratch = startFromScratch;
+    }
+
+    public int getInterpolator() {
+        return mInterpolator;
+    }
+
+    public void setInterpolator(int type) {
+        mInterpolator = type;
+    }
+
+    public float getMaxScale() {
+        return mMaxScale;
+    }
+
+    public void setMaxScale(float maxScale) {
+        checkMaxScale(maxScale);
+        mMaxScale = maxScale;
+    }
+
+    public int getFillMode() {
+        return mFillMode;
+    }
+
+    public void setFillMode(int fillMode) {
+        checkFillMode(fillMode);
+        mFillMode = fillMode;
+    }
+
+    public int getStyle() {
+        return mStyle;
+    }
+
+    public void setStyle(int style) {
+        checkStyle(style);
+        mStyle = style;
+    }
+
+    public float getStrokeWidth() {
+        return mStrokeWidth;
+    }
+
+    public void setStrokeWidth(float width) {
+        checkStrokeWidth(width);
+        mStrokeWidth = width;
+    }
+
+    public float getStrokeTaper() {
+        return mStrokeTaper;
+    }
+
+    public void setStrokeTaper(float taper) {
+        checkStrokeTaper(taper);
+        mStrokeTaper = taper;
+    }
+
+    /**
+     * Check a number of pulses.
+     *
+     * @param count Number of pulses
+     */
+    public static void checkCount(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative");
+        }
+    }
+
+    /**
+     * Check a pulse duration, 0 being a pulse which is not drawn.
+     *
+     * @param millis Pulse duration in milliseconds
+     */
+    public static void checkDuration(int millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Duration cannot be negative");
+        }
+    }
+
+    /**
+     * Check the scale the pulses grow to.
+     *
+     * @param maxScale Scale of the largest pulse relative to the content
+     */
+    public static void checkMaxScale(float maxScale) {
+        if (maxScale <= 0) {
+            throw new IllegalArgumentException("Max scale must be positive");
+        }
+    }
+
+    /**
+     * Check a fill mode.
+     *
+     * @param fillMode One of the {@code FILL_*} constants of {@link PulseFill}
+     */
+    public static void checkFillMode(int fillMode) {
+        if (fillMode < PulseFill.FILL_SOLID || fillMode > PulseFill.FILL_EDGE_FADE) {
+            throw new IllegalArgumentException("Unknown fill mode " + fillMode);
+        }
+    }
+
+    /**
+     * Check a style.
+     *
+     * @param style {@link PulsatorLayout#STYLE_FILL} or {@link PulsatorLayout#STYLE_STROKE}
+     */
+    public static void checkStyle(int style) {
+        if (style != PulsatorLayout.STYLE_FILL && style != PulsatorLayout.STYLE_STROKE) {
+            throw new IllegalArgumentException("Unknown style " + style);
+        }
+    }
+
+    /**
+     * Check the width of outlined rings.
+     *
+     * @param width Width in pixels
+     */
+    public static void checkStrokeWidth(float width) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("Stroke width must be positive");
+        }
+    }
+
+    /**
+     * Check the taper of outlined rings.
+     *
+     * @param taper Share of the width lost by the time a ring fades out, between 0 and 1
+     */
+    public static void checkStrokeTaper(float taper) {
+        if (taper < 0 || taper > 1) {
+            throw new IllegalArgumentException("Stroke taper must be between 0 and 1");
+        }
+    }
+}
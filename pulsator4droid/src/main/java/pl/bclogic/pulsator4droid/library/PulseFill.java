@@ -0,0 +1,135 @@
+package pl.bclogic.pulsator4droid.library;
+
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.RadialGradient;
+import android.graphics.Shader;
+
+import androidx.annotation.ColorInt;
+
+/**
+ * Fill of a {@link PulseShape}. Gradient fills are backed by a single {@link RadialGradient} of
+ * unit radius, which is only rebuilt when the fill mode or the color changes. Size, position and
+ * the scale of individual rings are applied through a reused local matrix, so drawing rings does
+ * not allocate.
+ */
+public class PulseFill {
+
+    /**
+     * Flat color.
+     */
+    public static final int FILL_SOLID = 0;
+    /**
+     * Full color in the center fading out towards the edge.
+     */
+    public static final int FILL_RADIAL_GRADIENT = 1;
+    /**
+     * Flat color with only the outer band fading out.
+     */
+    public static final int FILL_EDGE_FADE = 2;
+
+    private static final float EDGE_FADE_START = 0.7f;
+
+    private final Paint mPaint;
+    private final Matrix mMatrix = new Matrix();
+    private final int[] mColors = new int[3];
+    private final float[] mPositions = new float[3];
+
+    private int mMode = FILL_SOLID;
+    private int mColor;
+    private Shader mShader;
+
+    private float mCenterX;
+    private float mCenterY;
+    private float mRadiusX;
+    private float mRadiusY;
+
+    public PulseFill(Paint paint) {
+        mPaint = paint;
+        mColor = paint.getColor();
+    }
+
+    /**
+     * Set the fill mode and color. The shader is rebuilt only if either of them has changed.
+     *
+     * @param mode One of the {@code FILL_*} constants
+     * @param color ARGB color of the fill
+     */
+    public void set(int mode, @ColorInt int color) {
+        if (mode < FILL_SOLID || mode > FILL_EDGE_FADE) {
+            throw new IllegalArgumentException("Unknown fill mode " + mode);
+        }
+
+        if (mode == mMode && color == mColor) {
+            return;
+        }
+        mMode = mode;
+        mColor = color;
+
+        if (mode == FILL_SOLID) {
+            mShader = null;
+        } else {
+            int transparent = color & 0x00ffffff;
+            mColors[0] = color;
+            mColors[1] = mode == FILL_EDGE_FADE ? color : blend(color, transparent);
+            mColors[2] = transparent;
+            mPositions[0] = 0;
+            mPositions[1] = mode == FILL_EDGE_FADE ? EDGE_FADE_START : 0.5f;
+            mPositions[2] = 1;
+            mShader = new RadialGradient(0, 0, 1, mColors, mPositions, Shader.TileMode.CLAMP);
+            updateMatrix(1, 1);
+        }
+        mPaint.setShader(mShader);
+    }
+
+    public int getMode() {
+        return mMode;
+    }
+
+    /**
+     * Set the bounds of the full size ring.
+     *
+     * @param centerX Horizontal center of the ring
+     * @param centerY Vertical center of the ring
+     * @param radiusX Horizontal radius of the ring
+     * @param radiusY Vertical radius of the ring
+     */
+    public void setBounds(float centerX, float centerY, float radiusX, float radiusY) {
+        mCenterX = centerX;
+        mCenterY = centerY;
+        mRadiusX = radiusX;
+        mRadiusY = radiusY;
+        updateMatrix(1, 1);
+    }
+
+    /**
+     * Scale the fill about the center, for drawing a ring smaller than the full size.
+     *
+     * @param scaleX Horizontal scale of the ring
+     * @param scaleY Vertical scale of the ring
+     */
+    public void setScale(float scaleX, float scaleY) {
+        updateMatrix(scaleX, scaleY);
+    }
+
+    private void updateMatrix(float scaleX, float scaleY) {
+        if (mShader == null) {
+            return;
+        }
+
+        // keep the gradient from collapsing into a singular matrix for an empty ring
+        mMatrix.setScale(Math.max(mRadiusX * scaleX, Float.MIN_NORMAL),
+                Math.max(mRadiusY * scaleY, Float.MIN_NORMAL));
+        mMatrix.postTranslate(mCenterX, mCenterY);
+        mShader.setLocalMatrix(mMatrix);
+    }
+
+    private static int blend(int from, int to) {
+        return Color.argb(
+                (Color.alpha(from) + Color.alpha(to)) / 2,
+                Color.red(from),
+                Color.green(from),
+                Color.blue(from));
+    }
+}
@@ -0,0 +1,84 @@
+package pl.bclogic.pulsator4droid.library;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import androidx.annotation.ColorInt;
+
+/**
+ * Batches the outlines of many rings into a few reused {@link Path}s, so that outlined rings are
+ * drawn with a constant number of draw calls however many there are.
+ *
+ * <p>Rings are grouped by their alpha, quantized into a fixed number of levels. Rings of the same
+ * color therefore always end up in one path, and fading rings in at most {@code LEVELS} paths,
+ * each filled with the average color of its rings. Outlines are added as areas wound so that
+ * overlapping rings fill correctly with {@link Path.FillType#WINDING}.
+ */
+public class PulseOutlines {
+
+    private static final int LEVELS = 8;
+
+    private final Path[] mPaths = new Path[LEVELS];
+    private final int[] mRings = new int[LEVELS];
+    private final int[] mAlpha = new int[LEVELS];
+    private final int[] mRed = new int[LEVELS];
+    private final int[] mGreen = new int[LEVELS];
+    private final int[] mBlue = new int[LEVELS];
+
+    public PulseOutlines() {
+        for (int i = 0; i < LEVELS; i++) {
+            mPaths[i] = new Path();
+            mPaths[i].setFillType(Path.FillType.WINDING);
+        }
+    }
+
+    /**
+     * Get the path to add the outline of a ring of the given color to.
+     *
+     * @param color ARGB color of the ring, including its fading
+     * @return Path shared by the rings of a similar color until the next {@link #draw}
+     */
+    public Path getPath(@ColorInt int color) {
+        int alpha = Color.alpha(color);
+        int level = alpha * LEVELS / 256;
+
+        mRings[level]++;
+        mAlpha[level] += alpha;
+        mRed[level] += Color.red(color);
+        mGreen[level] += Color.green(color);
+        mBlue[level] += Color.blue(color);
+        return mPaths[level];
+    }
+
+    /**
+     * Fill the outlines added since the last call and empty the paths for the next frame.
+     *
+     * @param canvas Canvas to draw on
+     * @param paint Paint to draw with, its color, style and shader are changed during the call
+     */
+    public void draw(Canvas canvas, Paint paint) {
+        paint.setStyle(Paint.Style.FILL);
+        paint.setShader(null);
+
+        for (int i = 0; i < LEVELS; i++) {
+            int rings = mRings[i];
+            if (rings == 0) {
+                continue;
+            }
+
+            paint.setColor(Color.argb(mAlpha[i] / rings, mRed[i] / rings, mGreen[i] / rings,
+                    mBlue[i] / rings));
+            canvas.drawPath(mPaths[i], paint);
+
+            // rewind keeps the memory of the path for the next frame
+            mPaths[i].rewind();
+            mRings[i] = 0;
+            mAlpha[i] = 0;
+            mRed[i] = 0;
+            mGreen[i] = 0;
+            mBlue[i] = 0;
+        }
+    }
+}
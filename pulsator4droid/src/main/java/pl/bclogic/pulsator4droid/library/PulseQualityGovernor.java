@@ -0,0 +1,194 @@
+package pl.bclogic.pulsator4droid.library;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.PowerManager;
+import android.view.Choreographer;
+import android.view.Display;
+
+/**
+ * Watches the frame time of the UI thread while a {@link PulsatorLayout} is attached and steps
+ * its quality level down when frames are being missed, and back up once there is headroom again.
+ *
+ * <p>Battery saver and thermal hints do not measure anything, they only put a floor under the
+ * quality level chosen from the frame times.
+ */
+class PulseQualityGovernor implements Choreographer.FrameCallback {
+
+    private static final float DEFAULT_REFRESH_RATE = 60f;
+    private static final long IDLE_POLL_MILLIS = 500;
+
+    // weight of a new frame in the moving average of frame times
+    private static final float SAMPLE_WEIGHT = 0.1f;
+
+    // average frame time, relative to the refresh period, considered to be janky or smooth
+    private static final float JANK_RATIO = 1.5f;
+    private static final float HEADROOM_RATIO = 1.1f;
+
+    private static final int FRAMES_TO_STEP_DOWN = 30;
+    private static final int FRAMES_TO_STEP_UP = 180;
+    private static final int MAX_FRAMES_TO_STEP_UP = 1440;
+    // frames without a step down after which the step up gets less cautious again
+    private static final int FRAMES_TO_RELAX = 3600;
+
+    private final PulsatorLayout mPulsator;
+    private final Choreographer mChoreographer;
+    private final PowerManager mPowerManager;
+
+    private long mPeriodNanos;
+    private long mLastFrameNanos;
+    private float mAverageNanos;
+    private int mJankyFrames;
+    private int mSmoothFrames;
+    private int mFramesToStepUp = FRAMES_TO_STEP_UP;
+    private int mStableFrames;
+
+    private int mMeasuredLevel = PulsatorLayout.QUALITY_FULL;
+    private boolean mPowerSaveMode;
+    private boolean mThermalThrottled;
+    private boolean mRunning;
+
+    PulseQualityGovernor(PulsatorLayout pulsator) {
+        mPulsator = pulsator;
+        mChoreographer = Choreographer.getInstance();
+        mPowerManager = (PowerManager) pulsator.getContext()
+                .getSystemService(Context.POWER_SERVICE);
+    }
+
+    /**
+     * Start watching frames. Called when the pulsator gets attached to a window.
+     */
+    void start() {
+        if (mRunning) {
+            return;
+        }
+        mRunning = true;
+
+        Display display = mPulsator.getDisplay();
+        float refreshRate = display != null ? display.getRefreshRate() : DEFAULT_REFRESH_RATE;
+        if (refreshRate <= 0) {
+            refreshRate = DEFAULT_REFRESH_RATE;
+        }
+        mPeriodNanos = (long) (1000000000L / refreshRate);
+        mLastFrameNanos = 0;
+        mAverageNanos = 0;
+        mJankyFrames = 0;
+        mSmoothFrames = 0;
+
+        if (mPowerManager != null) {
+            mPowerSaveMode = mPowerManager.isPowerSaveMode();
+            mPulsator.getContext().registerReceiver(mPowerSaveReceiver,
+                    new IntentFilter(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED));
+        }
+
+        update();
+        mChoreographer.postFrameCallback(this);
+    }
+
+    /**
+     * Stop watching frames. The current quality level is kept so that re-attaching does not
+     * start over from full quality.
+     */
+    void stop() {
+        if (!mRunning) {
+            return;
+        }
+        mRunning = false;
+
+        mChoreographer.removeFrameCallback(this);
+        if (mPowerManager != null) {
+            mPulsator.getContext().unregisterReceiver(mPowerSaveReceiver);
+        }
+    }
+
+    void setThermalThrottled(boolean throttled) {
+        if (throttled != mThermalThrottled) {
+            mThermalThrottled = throttled;
+            update();
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning) {
+            return;
+        }
+
+        if (!mPulsator.isStarted()) {
+            // nothing is animating, there is no point in waking up on every frame
+            mLastFrameNanos = 0;
+            mChoreographer.postFrameCallbackDelayed(this, IDLE_POLL_MILLIS);
+            return;
+        }
+
+        if (mLastFrameNanos > 0) {
+            sample(frameTimeNanos - mLastFrameNanos);
+        }
+        mLastFrameNanos = frameTimeNanos;
+        mChoreographer.postFrameCallback(this);
+    }
+
+    private void sample(long frameNanos) {
+        if (mAverageNanos == 0) {
+            mAverageNanos = frameNanos;
+        } else {
+            mAverageNanos += SAMPLE_WEIGHT * (frameNanos - mAverageNanos);
+        }
+
+        if (mAverageNanos > mPeriodNanos * JANK_RATIO) {
+            mSmoothFrames = 0;
+            if (++mJankyFrames >= FRAMES_TO_STEP_DOWN
+                    && mMeasuredLevel < PulsatorLayout.QUALITY_SPRITE) {
+                mJankyFrames = 0;
+                mStableFrames = 0;
+                mMeasuredLevel++;
+                // every step down makes the next step up more cautious, so that a pulse which
+                // is itself the cause of the jank does not keep oscillating between two levels
+                mFramesToStepUp = Math.min(mFramesToStepUp * 2, MAX_FRAMES_TO_STEP_UP);
+                update();
+                return;
+            }
+        } else if (mAverageNanos < mPeriodNanos * HEADROOM_RATIO) {
+            mJankyFrames = 0;
+            if (++mSmoothFrames >= mFramesToStepUp
+                    && mMeasuredLevel > PulsatorLayout.QUALITY_FULL) {
+                mSmoothFrames = 0;
+                mMeasuredLevel--;
+                update();
+            }
+        } else {
+            mJankyFrames = 0;
+            mSmoothFrames = 0;
+        }
+
+        // a jank burst long ago should not slow down the recovery from the next one forever,
+        // the caution is halved after every long enough period without a step down
+        if (++mStableFrames >= FRAMES_TO_RELAX) {
+            mStableFrames = 0;
+            mFramesToStepUp = Math.max(mFramesToStepUp / 2, FRAMES_TO_STEP_UP);
+        }
+    }
+
+    private void update() {
+        int level = mMeasuredLevel;
+        if (mPowerSaveMode) {
+            level = Math.max(level, PulsatorLayout.QUALITY_REDUCED_FRAME_RATE);
+        }
+        if (mThermalThrottled) {
+            level = Math.max(level, PulsatorLayout.QUALITY_NO_ANTI_ALIAS);
+        }
+        mPulsator.setQualityLevel(level);
+    }
+
+    private final BroadcastReceiver mPowerSaveReceiver = new BroadcastReceiver() {
+
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            mPowerSaveMode = mPowerManager.isPowerSaveMode();
+            update();
+        }
+
+    };
+}
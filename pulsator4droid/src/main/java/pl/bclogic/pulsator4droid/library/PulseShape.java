@@ -4,6 +4,9 @@ import android.graphics.Canvas;
 
 public interface PulseShape {
 
+    int SHAPE_CIRCLE = 0;
+    int SHAPE_ROUNDED_RECTANGLE = 1;
+
     void setSize(float width, float height);
 
     void draw(Canvas canvas);
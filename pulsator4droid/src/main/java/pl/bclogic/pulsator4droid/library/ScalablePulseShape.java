@@ -0,0 +1,55 @@
+package pl.bclogic.pulsator4droid.library;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import androidx.annotation.ColorInt;
+
+/**
+ * A {@link PulseShape} which also draws single scaled rings, outlines them and is given a fill.
+ * The shapes of the library implement it. It is kept apart from {@link PulseShape} so that
+ * shapes implementing only that interface keep compiling, the views check for it with
+ * {@code instanceof}. A {@link PulsatorLayout} subclass whose shape does not implement it can
+ * still draw the shape through {@link PulsatorLayout#getPulseSprite()}, but gets no fill modes
+ * and no bursts.
+ */
+public interface ScalablePulseShape extends PulseShape {
+
+    /**
+     * Draw a single ring, scaled about the center of the shape.
+     *
+     * @param canvas Canvas to draw on
+     * @param scale Scale of the ring, 1 being the size set by {@link #setSize(float, float)}
+     */
+    void draw(Canvas canvas, float scale);
+
+    /**
+     * Draw a single ring with the given paint instead of the one of the shape, e.g. to give
+     * rings different colors without changing a shared paint.
+     *
+     * @param canvas Canvas to draw on
+     * @param scale Scale of the ring, 1 being the size set by {@link #setSize(float, float)}
+     * @param paint Paint to draw the ring with
+     */
+    void draw(Canvas canvas, float scale, Paint paint);
+
+    /**
+     * Add the outline of a single ring to a path, as an area of the given width along the edge of
+     * the ring. The outline is wound so that the outlines of any number of rings added to the same
+     * path can be filled together, see {@link PulseOutlines}.
+     *
+     * @param path Path to add the outline to
+     * @param scale Scale of the ring, 1 being the size set by {@link #setSize(float, float)}
+     * @param strokeWidth Width of the outline in pixels
+     */
+    void addOutline(Path path, float scale, float strokeWidth);
+
+    /**
+     * Set how the shape is filled.
+     *
+     * @param fillMode One of the {@code FILL_*} constants of {@link PulseFill}
+     * @param color ARGB color of the fill
+     */
+    void setFill(int fillMode, @ColorInt int color);
+}
@@ -0,0 +1,108 @@
+package pl.bclogic.pulsator4droid.library.circle;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RadialGradient;
+import android.graphics.Shader;
+
+import androidx.annotation.ColorInt;
+
+import pl.bclogic.pulsator4droid.library.PulseOutlines;
+
+/**
+ * Batches the outlines of the rings of a {@link CirclePulsatorLayout} into a single reused
+ * {@link Path}, so that they are drawn with one draw call however many there are.
+ *
+ * <p>The rings of a circle differ only by their distance from the center, so their color and
+ * fading are encoded along the radius by a radial gradient of {@link #STOPS} stops. The stops are
+ * kept in preallocated arrays and the gradient is only rebuilt when one of them has changed, that
+ * is at most once per step of the color tables during a transition. Along other shapes a radial
+ * gradient fades wrongly towards the corners, they are batched by {@link PulseOutlines}.
+ */
+class CircleOutlines {
+
+    /**
+     * Number of gradient stops, enough for the color ramp and the fading to look continuous.
+     */
+    static final int STOPS = 17;
+
+    private final Path mPath = new Path();
+    private final Paint mPaint = new Paint();
+    private final Matrix mMatrix = new Matrix();
+    private final int[] mColors = new int[STOPS];
+    private final float[] mPositions = new float[STOPS];
+
+    private Shader mShader;
+    private float mCenterX;
+    private float mCenterY;
+    private float mRadius;
+
+    CircleOutlines() {
+        mPath.setFillType(Path.FillType.WINDING);
+        mPaint.setStyle(Paint.Style.FILL);
+        // the gradient carries the alpha, the paint must not reduce it
+        mPaint.setColor(Color.BLACK);
+    }
+
+    /**
+     * Get the path to add the outlines of the rings of the current frame to.
+     *
+     * @return Path shared by all the rings until the next {@link #draw}
+     */
+    Path getPath() {
+        return mPath;
+    }
+
+    /**
+     * Set the color of the rings at a given distance from the center. The gradient is rebuilt on
+     * the next {@link #draw} only if the stop has changed.
+     *
+     * @param index Index of the stop, from 0 to {@link #STOPS} - 1, positions must not decrease
+     *     with the index
+     * @param position Distance from the center relative to the radius given to {@link #draw}
+     * @param color ARGB color of the rings at that distance, including their fading
+     */
+    void setStop(int index, float position, @ColorInt int color) {
+        if (mPositions[index] != position || mColors[index] != color) {
+            mPositions[index] = position;
+            mColors[index] = color;
+            mShader = null;
+        }
+    }
+
+    /**
+     * Fill the outlines added since the last call and empty the path for the next frame.
+     *
+     * @param canvas Canvas to draw on
+     * @param antiAlias Whether to draw with anti-aliasing
+     * @param centerX Horizontal center of the rings
+     * @param centerY Vertical center of the rings
+     * @param radius Radius the stop positions are relative to
+     */
+    void draw(Canvas canvas, boolean antiAlias, float centerX, float centerY, float radius) {
+        if (!mPath.isEmpty() && radius > 0) {
+            boolean rebuilt = mShader == null;
+            if (rebuilt) {
+                // a unit gradient, placed by its local matrix
+                mShader = new RadialGradient(0, 0, 1, mColors, mPositions, Shader.TileMode.CLAMP);
+                mPaint.setShader(mShader);
+            }
+            if (rebuilt || centerX != mCenterX || centerY != mCenterY || radius != mRadius) {
+                mCenterX = centerX;
+                mCenterY = centerY;
+                mRadius = radius;
+                mMatrix.setScale(radius, radius);
+                mMatrix.postTranslate(centerX, centerY);
+                mShader.setLocalMatrix(mMatrix);
+            }
+            mPaint.setAntiAlias(antiAlias);
+            canvas.drawPath(mPath, mPaint);
+        }
+
+        // rewind keeps the memory of the path for the next frame
+        mPath.rewind();
+    }
+}
@@ -3,13 +3,20 @@ package pl.bclogic.pulsator4droid.library.circle;
 import android.animation.Animator;
 import android.animation.ObjectAnimator;
 import android.content.Context;
+import android.content.res.Resources;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.Path.Direction;
+import android.graphics.RectF;
 import android.graphics.Region.Op;
+import android.graphics.drawable.AnimatedVectorDrawable;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.View;
 import android.view.animation.AccelerateDecelerateInterpolator;
@@ -18,12 +25,17 @@ import android.view.animation.DecelerateInterpolator;
 import android.view.animation.Interpolator;
 import android.view.animation.LinearInterpolator;
 
+import androidx.annotation.ColorInt;
+import androidx.annotation.VisibleForTesting;
+
 import java.util.ArrayList;
 import java.util.List;
 
 import pl.bclogic.pulsator4droid.library.PulsatorLayout;
+import pl.bclogic.pulsator4droid.library.PulseFill;
 import pl.bclogic.pulsator4droid.library.PulseShape;
 import pl.bclogic.pulsator4droid.library.R;
+import timber.log.Timber;
 
 public class CirclePulsatorLayout extends PulsatorLayout {
 
@@ -32,13 +44,28 @@ public class CirclePulsatorLayout extends PulsatorLayout {
     public static final int INTERP_DECELERATE = 2;
     public static final int INTERP_ACCELERATE_DECELERATE = 3;
 
-    private static final int DEFAULT_REPEAT = INFINITE;
-    private static final boolean DEFAULT_START_FROM_SCRATCH = true;
-    private static final int DEFAULT_INTERPOLATOR = INTERP_LINEAR;
+    /**
+     * Granularity of the durations supported on the RenderThread, see the duration styles.
+     */
+    private static final int RENDER_THREAD_DURATION_STEP = 100;
+
+    // scale x, scale y and alpha
+    private static final int ANIMATORS_PER_RING = 3;
+
     private float mCircularMaskRadius = RADIUS_NONE;
+    private boolean mRenderThreadAnimation;
+    private boolean mRenderThreadAnimationActive;
+    private boolean mHardwareLayersWhileAnimating;
 
     private final List<View> mViews = new ArrayList<>();
 
+    private final CircleOutlines mOutlines = new CircleOutlines();
+    private final Paint mRingPaint = new Paint();
+    private final RectF mSpriteRect = new RectF();
+    private long mStartTime;
+    private Interpolator mInterpolatorImpl;
+    private boolean mClockDriven;
+
     /**
      * {@link android.animation.AnimatorSet} seems to be having issues with
      * {@link android.animation.ValueAnimator#setCurrentPlayTime(long) being used for its
@@ -50,6 +77,7 @@ public class CirclePulsatorLayout extends PulsatorLayout {
      * <p>(The play time can be fast-forwarded for the whole set, but not before API 26.)
      */
     private List<Animator> mAnimators;
+    private int mAnimatorsCreated;
 
     public CirclePulsatorLayout(Context context) {
         this(context, null, 0);
@@ -62,27 +90,8 @@ public class CirclePulsatorLayout extends PulsatorLayout {
     public CirclePulsatorLayout(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
 
-        // get attributes
-        TypedArray attr = context.getTheme().obtainStyledAttributes(
-                attrs, R.styleable.Pulsator4Droid, 0, 0);
-
-        mRepeat = DEFAULT_REPEAT;
-        mStartFromScratch = DEFAULT_START_FROM_SCRATCH;
-        mInterpolator = DEFAULT_INTERPOLATOR;
-
-        try {
-            mRepeat = attr.getInteger(R.styleable.Pulsator4Droid_pulse_repeat, DEFAULT_REPEAT);
-            mStartFromScratch = attr.getBoolean(R.styleable.Pulsator4Droid_pulse_startFromScratch,
-                    DEFAULT_START_FROM_SCRATCH);
-            mInterpolator = attr.getInteger(R.styleable.Pulsator4Droid_pulse_interpolator,
-                    DEFAULT_INTERPOLATOR);
-
-        } finally {
-            attr.recycle();
-        }
-
-        // create views
-        build();
+        // the views and animators of the rings are only built on the first start, inflating a
+        // pulsator which is never started, or reconfigured before starting, costs nothing more
     }
 
     @Override
@@ -90,23 +99,142 @@ public class CirclePulsatorLayout extends PulsatorLayout {
         return new PulseCircle(paint);
     }
 
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        // the mask is centered on the pulse, it is rebuilt by the next onDraw(Canvas)
+        mMask = null;
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
         if (mMask == null && mCircularMaskRadius > 0) {
             mMask = new Path();
             PulseCircle circle = (PulseCircle) mPulseShape;
-            mMask.addCircle(
-                    circle.getCenterX(), circle.getCenterY(), mCircularMaskRadius, Direction.CW);
+            mMask.addCircle(circle.getCenterX() + getOverflowX(),
+                    circle.getCenterY() + getOverflowY(), mCircularMaskRadius, Direction.CW);
         }
         if (mMask != null) {
             canvas.clipPath(mMask, Op.DIFFERENCE);
         }
+        if (mStyle == STYLE_STROKE || mClockDriven) {
+            drawRings(canvas);
+        }
+    }
+
+    /**
+     * Draw the rings from a single clock, with the timing the animators of filled rings have.
+     * Outlined rings are always drawn this way, all at once, and have no ring views nor
+     * animators. Filled rings are drawn this way at a reduced frame rate, see
+     * {@link #onQualityChanged(int)}.
+     */
+    private void drawRings(Canvas canvas) {
+        if (!mIsStarted || mCount == 0 || mDuration == 0) {
+            return;
+        }
+
+        boolean outlined = mStyle == STYLE_STROKE;
+        boolean transitioning = updateRingColors();
+        long elapsed = SystemClock.uptimeMillis() - mStartTime;
+        boolean running = false;
+
+        PulseCircle circle = (PulseCircle) mPulseShape;
+        Bitmap sprite = outlined ? null : getPulseSprite();
+        mRingPaint.set(mPaint);
+        float left = getOverflowX() + getPaddingLeft();
+        float top = getOverflowY() + getPaddingTop();
+        canvas.translate(left, top);
+
+        Path outlines = mOutlines.getPath();
+        for (int index = 0; index < mCount; index++) {
+            // staggered by a start delay, or fast-forwarded by it when not starting from scratch
+            long delay = (long) index * mDuration / mCount;
+            long time = mStartFromScratch ? elapsed - delay : elapsed + mDuration - delay;
+            if (time < 0) {
+                running = true;
+                continue;
+            }
+            if (mRepeat != INFINITE && time / mDuration > mRepeat) {
+                continue;
+            }
+            running = true;
+
+            float value = mInterpolatorImpl.getInterpolation(
+                    (time % mDuration) / (float) mDuration);
+            if (!isRingDrawn(index) || value <= 0) {
+                continue;
+            }
+            if (outlined) {
+                circle.addOutline(outlines, value * mMaxScale, getRingStrokeWidth(value));
+            } else {
+                drawRing(canvas, circle, sprite, value);
+            }
+        }
+
+        if (outlined) {
+            updateOutlineStops();
+            mOutlines.draw(canvas, mPaint.isAntiAlias(), circle.getCenterX(),
+                    circle.getCenterY(), circle.getRadius() * mMaxScale);
+        }
+        canvas.translate(-left, -top);
+
+        if (!running) {
+            mIsStarted = false;
+        }
+        if (mIsStarted || transitioning) {
+            scheduleRedraw();
+        }
+    }
+
+    /**
+     * Draw a filled ring the way a ring view looks at the same point of its animation.
+     */
+    private void drawRing(Canvas canvas, PulseCircle circle, Bitmap sprite, float value) {
+        int color = getRingColor(value);
+        mRingPaint.setColor(color);
+        mRingPaint.setAlpha((int) (Color.alpha(color) * (1 - value)));
+
+        float scale = value * mMaxScale;
+        if (sprite != null) {
+            float halfWidth = sprite.getWidth() * scale * 0.5f;
+            float halfHeight = sprite.getHeight() * scale * 0.5f;
+            mSpriteRect.set(circle.getCenterX() - halfWidth, circle.getCenterY() - halfHeight,
+                    circle.getCenterX() + halfWidth, circle.getCenterY() + halfHeight);
+            canvas.drawBitmap(sprite, null, mSpriteRect, mRingPaint);
+        } else {
+            circle.draw(canvas, scale, mRingPaint);
+        }
+    }
+
+    /**
+     * Encode the color and fading of the outlined rings along the radius: the scale of a ring is
+     * its distance from the center, a ring at half the radius gets the ring color of that scale,
+     * faded by half, just like a filled ring.
+     */
+    private void updateOutlineStops() {
+        int last = CircleOutlines.STOPS - 1;
+        for (int i = 0; i <= last; i++) {
+            float value = (float) i / last;
+            int color = getRingColor(value);
+            int alpha = (int) (Color.alpha(color) * (1 - value));
+            mOutlines.setStop(i, value, (color & 0x00ffffff) | (alpha << 24));
+        }
     }
 
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
 
+        if (mRenderThreadAnimationActive) {
+            stop();
+        }
+        if (mClockDriven) {
+            // the animators are not running, nothing would tell that the pulse has stopped
+            mClockDriven = false;
+            mIsStarted = false;
+        }
+
         if (mAnimators != null) {
             for (Animator animator : mAnimators) {
                 animator.cancel();
@@ -118,23 +246,64 @@ public class CirclePulsatorLayout extends PulsatorLayout {
     @Override
     public void start() {
 
-        if (mAnimators == null) {
-            reset();
-            if (mAnimators == null) {
-                return;
+        if (mStyle == STYLE_STROKE) {
+            if (!mIsStarted) {
+                mIsStarted = true;
+                mStartTime = SystemClock.uptimeMillis();
+                mInterpolatorImpl = createInterpolator(mInterpolator);
+                updateWillNotDraw();
+                invalidate();
             }
+            return;
+        }
+
+        if (mAnimators == null && !mRenderThreadAnimationActive) {
+            // not built yet, or the animators have been cleared when detached
+            clear();
+            build();
+        }
+
+        if (mRenderThreadAnimationActive) {
+            startRenderThreadAnimation();
+            return;
+        }
+
+        if (mAnimators == null) {
+            return;
         }
 
         if (mIsStarted) {
             return;
         }
 
+        mStartTime = SystemClock.uptimeMillis();
+        mInterpolatorImpl = createInterpolator(mInterpolator);
+        if (mClockDriven || shouldDriveByClock()) {
+            mIsStarted = true;
+            setClockDriven(true);
+            return;
+        }
+        startAnimators(0);
+    }
+
+    /**
+     * Start the animators at the given point of the pulse, with the timing of
+     * {@link #drawRings(Canvas)}: a ring which is not due yet is delayed, the others are
+     * fast-forwarded to their phase.
+     *
+     * @param elapsed Time since the pulse has been started in milliseconds
+     */
+    private void startAnimators(long elapsed) {
         for (int x = 0; x < mAnimators.size(); x++) {
             ObjectAnimator objectAnimator = (ObjectAnimator) mAnimators.get(x);
 
-            if (!mStartFromScratch) {
+            long delay = (long) (x / ANIMATORS_PER_RING) * mDuration / mCount;
+            long time = mStartFromScratch ? elapsed - delay : elapsed + mDuration - delay;
+            if (time <= 0) {
+                objectAnimator.setStartDelay(-time);
+                objectAnimator.start();
+            } else {
                 // instead of delaying the animation, fast-forward it
-                long delay = objectAnimator.getStartDelay();
                 objectAnimator.setStartDelay(0);
 
                 // This is where it starts to get tricky. The documentation of
@@ -149,20 +318,80 @@ public class CirclePulsatorLayout extends PulsatorLayout {
                 if (shouldStartBeforeSettingCurrentTime) {
                     objectAnimator.start();
                 }
-                objectAnimator.setCurrentPlayTime(mDuration - delay);
+                objectAnimator.setCurrentPlayTime(time);
                 if (!shouldStartBeforeSettingCurrentTime) {
                     objectAnimator.start();
                 }
-            } else {
-                objectAnimator.start();
             }
         }
     }
 
+    /**
+     * Whether filled rings should be drawn from the clock rather than by their views: at a
+     * reduced frame rate the animators would still run on every frame, the clock only on the
+     * frames actually drawn. The RenderThread animation costs the UI thread nothing, it is kept.
+     */
+    private boolean shouldDriveByClock() {
+        return mStyle == STYLE_FILL && mQualityLevel >= QUALITY_REDUCED_FRAME_RATE
+                && !mRenderThreadAnimationActive;
+    }
+
+    /**
+     * Switch filled rings between their views and the clock, keeping the phase of the pulse.
+     */
+    private void setClockDriven(boolean clockDriven) {
+        mClockDriven = clockDriven;
+        if (clockDriven) {
+            // cancelled rather than paused, they are restarted at the phase of the clock
+            for (Animator animator : mAnimators) {
+                animator.cancel();
+            }
+        } else if (mIsStarted) {
+            startAnimators(SystemClock.uptimeMillis() - mStartTime);
+        }
+
+        for (int index = 0; index < mViews.size(); index++) {
+            View view = mViews.get(index);
+            view.setVisibility(!clockDriven && isRingDrawn(index) ? VISIBLE : INVISIBLE);
+            if (clockDriven) {
+                // left as cancelled otherwise, shown as such if the pulse ends meanwhile
+                view.setScaleX(0);
+                view.setScaleY(0);
+            }
+        }
+        updateWillNotDraw();
+        invalidate();
+    }
+
     @Override
     public void stop() {
+        if (mClockDriven) {
+            // the animators are not running, the clock stops with the next draw
+            if (mIsStarted) {
+                mIsStarted = false;
+                invalidate();
+            }
+            return;
+        }
+
+        if (mRenderThreadAnimationActive) {
+            for (View view : mViews) {
+                ((PulseView) view).stopDrawable();
+            }
+            mIsStarted = false;
+            updateRingLayers();
+            return;
+        }
 
-        if (mAnimators == null || !mIsStarted) {
+        if (mAnimators == null) {
+            // outlined rings only run on the clock, which stops with the next draw
+            if (mStyle == STYLE_STROKE && mIsStarted) {
+                mIsStarted = false;
+                invalidate();
+            }
+            return;
+        }
+        if (!mIsStarted) {
             return;
         }
         for (Animator animator : mAnimators) {
@@ -176,7 +405,12 @@ public class CirclePulsatorLayout extends PulsatorLayout {
 
         stop();
         clear();
-        build();
+
+        // the rings are rebuilt by the next start
+        mAnimators = null;
+        mClockDriven = false;
+        mRenderThreadAnimationActive = false;
+        updateWillNotDraw();
 
         if (isStarted) {
             start();
@@ -224,6 +458,173 @@ public class CirclePulsatorLayout extends PulsatorLayout {
         mStartFromScratch = startFromScratch;
     }
 
+    @Override
+    protected void onColorChanged(@ColorInt int color) {
+        // the vector animation cannot follow a transition, it takes the new color at once
+        if (mRenderThreadAnimationActive) {
+            for (View view : mViews) {
+                ((PulseView) view).mDrawable.setTint(color);
+            }
+        }
+    }
+
+    /**
+     * Let the rings be animated by the RenderThread, so that the pulse keeps going while the UI
+     * thread is busy, e.g. when used as a loading indicator. All the rings are drawn by a single
+     * {@link AnimatedVectorDrawable}, which also staggers them, so that once started the pulse
+     * needs no work on the UI thread at all.
+     *
+     * <p>The animation is baked into the library resources, so this is only used when the
+     * device runs Android 7.1 or higher and the configuration matches the resources: linear
+     * interpolator, infinite repeat, starting from scratch, max scale of 1, filled rings, 1 to 10
+     * rings and a duration which is a multiple of 100 ms up to 10 s. The drawable only has a
+     * flat color, so the solid fill mode is required and no ring color ramp may be set; these
+     * take precedence, setting another fill mode or a ramp moves running rings back to the
+     * animators. Otherwise the pulse falls back to the regular animators, which is logged
+     * through Timber with the reason, see also {@link #isRenderThreadAnimationActive()}.
+     *
+     * @param enabled <code>true</code> to animate on the RenderThread when possible
+     */
+    public void setRenderThreadAnimationEnabled(boolean enabled) {
+        if (enabled != mRenderThreadAnimation) {
+            mRenderThreadAnimation = enabled;
+            reset();
+            invalidate();
+        }
+    }
+
+    public boolean isRenderThreadAnimationEnabled() {
+        return mRenderThreadAnimation;
+    }
+
+    /**
+     * Whether the rings are currently animated by the RenderThread.
+     *
+     * @return <code>false</code> if not requested, not supported with the current configuration
+     * or the pulse has not been started since the last change of the configuration
+     */
+    public boolean isRenderThreadAnimationActive() {
+        return mRenderThreadAnimationActive;
+    }
+
+    /**
+     * Get why the rings cannot be animated by the RenderThread in the current configuration.
+     *
+     * @return Unsupported setting, <code>null</code> if the configuration is supported
+     */
+    private String getRenderThreadUnsupportedReason() {
+        // AnimatedVectorDrawable is animated on the RenderThread since API 25
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N_MR1) {
+            return "requires Android 7.1";
+        } else if (mInterpolator != INTERP_LINEAR) {
+            return "requires the linear interpolator";
+        } else if (mRepeat != INFINITE) {
+            return "requires an infinite repeat";
+        } else if (!mStartFromScratch) {
+            return "requires starting from scratch";
+        } else if (mMaxScale != 1) {
+            return "requires a max scale of 1";
+        } else if (mStyle != STYLE_FILL) {
+            return "requires filled rings";
+        } else if (mFillMode != PulseFill.FILL_SOLID) {
+            return "requires the solid fill mode";
+        } else if (isRingColorRampEnabled()) {
+            return "does not support a ring color ramp";
+        } else if (mDuration % RENDER_THREAD_DURATION_STEP != 0) {
+            return "requires a duration in multiples of " + RENDER_THREAD_DURATION_STEP + " ms";
+        }
+        return null;
+    }
+
+    /**
+     * Create the drawable animating all the rings on the RenderThread, the stagger of the rings
+     * is part of the drawable and the duration comes from the theme it is inflated with.
+     *
+     * @return Drawable for the current count and duration, <code>null</code> if they are not
+     * supported by the library resources
+     */
+    private AnimatedVectorDrawable createRenderThreadDrawable() {
+        String reason = getRenderThreadUnsupportedReason();
+        if (reason == null) {
+            Resources resources = getResources();
+            TypedArray rings = resources.obtainTypedArray(R.array.pulse_render_thread_rings);
+            TypedArray durations = resources.obtainTypedArray(
+                    R.array.pulse_render_thread_durations);
+            try {
+                int duration = mDuration / RENDER_THREAD_DURATION_STEP;
+                if (mCount < 1 || mCount > rings.length()) {
+                    reason = "supports 1 to " + rings.length() + " rings";
+                } else if (duration < 1 || duration > durations.length()) {
+                    reason = "supports durations up to "
+                            + durations.length() * RENDER_THREAD_DURATION_STEP + " ms";
+                } else {
+                    Resources.Theme theme = resources.newTheme();
+                    theme.setTo(getContext().getTheme());
+                    theme.applyStyle(durations.getResourceId(duration - 1, 0), true);
+                    return (AnimatedVectorDrawable) resources.getDrawable(
+                            rings.getResourceId(mCount - 1, 0), theme).mutate();
+                }
+            } finally {
+                rings.recycle();
+                durations.recycle();
+            }
+        }
+
+        Timber.w("Pulse animated on the UI thread, the RenderThread animation %s", reason);
+        return null;
+    }
+
+    private void startRenderThreadAnimation() {
+        if (mIsStarted) {
+            return;
+        }
+        mIsStarted = true;
+        updateRingLayers();
+
+        // the drawable staggers the rings itself, nothing is left to run on the UI thread
+        for (View view : mViews) {
+            ((PulseView) view).startDrawable();
+        }
+    }
+
+    /**
+     * Render each ring into a hardware layer while the pulse is running. The content of a ring
+     * does not change while it is scaled and faded, so the layer is drawn once and then only
+     * composited. This trades the memory of one layer per ring for less work per frame when the
+     * ring itself is expensive to draw, e.g. with a gradient fill. The layers are released when
+     * the pulse stops.
+     *
+     * <p>Disabled by default: the rings are then drawn directly, the fading being applied to the
+     * paint of their single draw operation without any offscreen buffer.
+     *
+     * <p>The layers only pay off while the content of the rings is static. With a color ramp,
+     * see {@link #setRingColorRamp(int)}, or during {@link #animateColor(int, int)}, every ring
+     * is redrawn on every frame, so are the layers, which then cost memory and a redraw for
+     * nothing.
+     *
+     * @param enabled <code>true</code> to use hardware layers while animating
+     */
+    public void setHardwareLayersWhileAnimating(boolean enabled) {
+        if (enabled != mHardwareLayersWhileAnimating) {
+            mHardwareLayersWhileAnimating = enabled;
+            updateRingLayers();
+        }
+    }
+
+    public boolean isHardwareLayersWhileAnimating() {
+        return mHardwareLayersWhileAnimating;
+    }
+
+    private void updateRingLayers() {
+        int layerType = mHardwareLayersWhileAnimating && mIsStarted
+                ? LAYER_TYPE_HARDWARE : LAYER_TYPE_NONE;
+        for (View view : mViews) {
+            if (view.getLayerType() != layerType) {
+                view.setLayerType(layerType, null);
+            }
+        }
+    }
+
     private void clear() {
 
         // remove old views
@@ -231,7 +632,6 @@ public class CirclePulsatorLayout extends PulsatorLayout {
             removeView(view);
         }
         mViews.clear();
-        mCircularMaskRadius = RADIUS_NONE;
     }
 
     /**
@@ -244,10 +644,10 @@ public class CirclePulsatorLayout extends PulsatorLayout {
     public void setCenterCircularMaskRadius(float radius) {
         if (mPulseShape instanceof PulseCircle) {
             if (radius <= 0) {
-                // disable the onDraw method (masking)
-                setWillNotDraw(true);
+                // disable the onDraw method (masking), unless it draws the outlines
                 mCircularMaskRadius = RADIUS_NONE;
                 mMask = null;
+                updateWillNotDraw();
             } else {
                 // enable the onDraw method (masking)
                 setWillNotDraw(false);
@@ -258,6 +658,47 @@ public class CirclePulsatorLayout extends PulsatorLayout {
         }
     }
 
+    private void updateWillNotDraw() {
+        setWillNotDraw(mStyle == STYLE_FILL && !mClockDriven && mMask == null
+                && mCircularMaskRadius <= 0);
+    }
+
+    @Override
+    protected void invalidateRings() {
+        // the drawable of the RenderThread animation is tinted with a flat color, a new fill mode
+        // or a ramp moves the rings back to the animators
+        if (mRenderThreadAnimationActive && getRenderThreadUnsupportedReason() != null) {
+            reset();
+        }
+
+        // the rings are drawn by the child views, which keep their own display lists, or by
+        // this layout when outlined
+        for (View view : mViews) {
+            view.invalidate();
+        }
+        invalidate();
+    }
+
+    @Override
+    protected void onQualityChanged(int level) {
+        // at a reduced frame rate filled rings are drawn from the clock, which keeps the phase
+        boolean clockDriven = mAnimators != null && shouldDriveByClock();
+        if (clockDriven != mClockDriven) {
+            setClockDriven(clockDriven);
+            return;
+        }
+        if (mClockDriven) {
+            return;
+        }
+
+        // only the views are touched, the animators keep running so the phase is preserved
+        for (int index = 0; index < mViews.size(); index++) {
+            View view = mViews.get(index);
+            view.setVisibility(isRingDrawn(index) ? VISIBLE : INVISIBLE);
+            view.invalidate();
+        }
+    }
+
     /**
      * Build pulse views and animators.
      */
@@ -267,15 +708,32 @@ public class CirclePulsatorLayout extends PulsatorLayout {
                 LayoutParams.MATCH_PARENT,
                 LayoutParams.MATCH_PARENT);
 
+        updateWillNotDraw();
+
+        AnimatedVectorDrawable drawable = mRenderThreadAnimation
+                ? createRenderThreadDrawable() : null;
+        mRenderThreadAnimationActive = drawable != null;
+        if (mRenderThreadAnimationActive) {
+            // a single view draws all the rings
+            PulseView pulseView = new PulseView(getContext());
+            pulseView.setDrawable(drawable);
+
+            addView(pulseView, 0, layoutParams);
+            mViews.add(pulseView);
+            mAnimators = null;
+            return;
+        }
+
         int repeatCount = (mRepeat == INFINITE) ? ObjectAnimator.INFINITE : mRepeat;
 
-        mAnimators = new ArrayList<>(3 * mCount);
+        mAnimators = new ArrayList<>(ANIMATORS_PER_RING * mCount);
         for (int index = 0; index < mCount; index++) {
             // setup view
             PulseView pulseView = new PulseView(getContext());
             pulseView.setScaleX(0);
             pulseView.setScaleY(0);
             pulseView.setAlpha(1);
+            pulseView.setVisibility(isRingDrawn(index) ? VISIBLE : INVISIBLE);
 
             addView(pulseView, index, layoutParams);
             mViews.add(pulseView);
@@ -283,15 +741,17 @@ public class CirclePulsatorLayout extends PulsatorLayout {
             long delay = index * mDuration / mCount;
 
             // setup animators
-            ObjectAnimator scaleXAnimator = ObjectAnimator.ofFloat(pulseView, "ScaleX", 0f, 1f);
+            ObjectAnimator scaleXAnimator =
+                    ObjectAnimator.ofFloat(pulseView, View.SCALE_X, 0f, mMaxScale);
             scaleXAnimator.setStartDelay(delay);
             mAnimators.add(scaleXAnimator);
 
-            ObjectAnimator scaleYAnimator = ObjectAnimator.ofFloat(pulseView, "ScaleY", 0f, 1f);
+            ObjectAnimator scaleYAnimator =
+                    ObjectAnimator.ofFloat(pulseView, View.SCALE_Y, 0f, mMaxScale);
             scaleYAnimator.setStartDelay(delay);
             mAnimators.add(scaleYAnimator);
 
-            ObjectAnimator alphaAnimator = ObjectAnimator.ofFloat(pulseView, "Alpha", 1f, 0f);
+            ObjectAnimator alphaAnimator = ObjectAnimator.ofFloat(pulseView, View.ALPHA, 1f, 0f);
             alphaAnimator.setStartDelay(delay);
             mAnimators.add(alphaAnimator);
         }
@@ -304,6 +764,7 @@ public class CirclePulsatorLayout extends PulsatorLayout {
             objectAnimator.setDuration(mDuration);
         }
 
+        mAnimatorsCreated += mAnimators.size();
         if (mAnimators.isEmpty()) {
             mAnimators = null;
         } else {
@@ -312,15 +773,82 @@ public class CirclePulsatorLayout extends PulsatorLayout {
         }
     }
 
+    /**
+     * Get the number of ring animators built over the lifetime of this layout, for tests
+     * measuring what a scenario allocates.
+     *
+     * @return Number of animators built so far
+     */
+    @VisibleForTesting
+    int getAnimatorsCreated() {
+        return mAnimatorsCreated;
+    }
+
     private class PulseView extends View {
 
+        private AnimatedVectorDrawable mDrawable;
+        private final Paint mRingPaint = new Paint();
+
         public PulseView(Context context) {
             super(context);
         }
 
+        void setDrawable(AnimatedVectorDrawable drawable) {
+            mDrawable = drawable;
+            mDrawable.setTint(mColor);
+            mDrawable.setCallback(this);
+        }
+
+        void startDrawable() {
+            mDrawable.start();
+        }
+
+        void stopDrawable() {
+            mDrawable.stop();
+        }
+
+        /**
+         * A ring is a single draw operation which cannot overlap itself, so the animated alpha
+         * can be applied straight to its paint. Otherwise a partially transparent ring may be
+         * rendered into an offscreen buffer first on every frame.
+         */
+        @Override
+        public boolean hasOverlappingRendering() {
+            return false;
+        }
+
+        @Override
+        protected boolean verifyDrawable(Drawable who) {
+            return who == mDrawable || super.verifyDrawable(who);
+        }
+
         @Override
         protected void onDraw(Canvas canvas) {
-            mPulseShape.draw(canvas);
+            if (mDrawable != null) {
+                PulseCircle circle = (PulseCircle) mPulseShape;
+                float radius = circle.getRadius();
+                mDrawable.setBounds(
+                        (int) (circle.getCenterX() - radius), (int) (circle.getCenterY() - radius),
+                        (int) (circle.getCenterX() + radius), (int) (circle.getCenterY() + radius));
+                mDrawable.draw(canvas);
+                return;
+            }
+
+            Bitmap sprite = getPulseSprite();
+            if (sprite != null) {
+                canvas.drawBitmap(sprite, 0, 0, null);
+                return;
+            }
+
+            // the fading is done by the view alpha, the ring paint only carries the color
+            boolean transitioning = updateRingColors();
+            mRingPaint.set(mPaint);
+            mRingPaint.setColor(getRingColor(getScaleX() / mMaxScale));
+            ((PulseCircle) mPulseShape).draw(canvas, 1, mRingPaint);
+
+            if (transitioning || (isRingColorAnimated() && mIsStarted)) {
+                postInvalidateOnAnimation();
+            }
         }
 
     }
@@ -353,6 +881,7 @@ public class CirclePulsatorLayout extends PulsatorLayout {
         @Override
         public void onAnimationStart(Animator animator) {
             mIsStarted = true;
+            updateRingLayers();
         }
 
     };
@@ -361,12 +890,19 @@ public class CirclePulsatorLayout extends PulsatorLayout {
 
         @Override
         public void onAnimationEnd(Animator animator) {
-            mIsStarted = false;
+            if (!mClockDriven) {
+                mIsStarted = false;
+                updateRingLayers();
+            }
         }
 
         @Override
         public void onAnimationCancel(Animator animator) {
-            mIsStarted = false;
+            // cancelled to hand the rings over to the clock, the pulse goes on
+            if (!mClockDriven) {
+                mIsStarted = false;
+                updateRingLayers();
+            }
         }
 
     };
@@ -377,7 +913,7 @@ public class CirclePulsatorLayout extends PulsatorLayout {
      * @param type Interpolator type as int
      * @return Interpolator object of type
      */
-    protected static Interpolator createInterpolator(int type) {
+    public static Interpolator createInterpolator(int type) {
         switch (type) {
             case INTERP_ACCELERATE:
                 return new AccelerateInterpolator();
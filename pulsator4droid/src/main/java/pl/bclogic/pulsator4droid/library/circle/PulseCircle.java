@@ -2,18 +2,23 @@ package pl.bclogic.pulsator4droid.library.circle;
 
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Path.Direction;
 
-import pl.bclogic.pulsator4droid.library.PulseShape;
+import pl.bclogic.pulsator4droid.library.PulseFill;
+import pl.bclogic.pulsator4droid.library.ScalablePulseShape;
 
-public class PulseCircle implements PulseShape {
+public class PulseCircle implements ScalablePulseShape {
 
     private float mCenterX;
     private float mCenterY;
     private float mRadius;
     private Paint mPaint;
+    private final PulseFill mFill;
 
-    PulseCircle(Paint paint) {
+    public PulseCircle(Paint paint) {
         mPaint = paint;
+        mFill = new PulseFill(paint);
     }
 
     @Override
@@ -21,11 +26,40 @@ public class PulseCircle implements PulseShape {
         mCenterX = width * 0.5f;
         mCenterY = height * 0.5f;
         mRadius = Math.min(mCenterX, mCenterY);
+        mFill.setBounds(mCenterX, mCenterY, mRadius, mRadius);
     }
 
     @Override
     public void draw(Canvas canvas) {
-        canvas.drawCircle(mCenterX, mCenterY, mRadius, mPaint);
+        draw(canvas, 1);
+    }
+
+    @Override
+    public void draw(Canvas canvas, float scale) {
+        draw(canvas, scale, mPaint);
+    }
+
+    @Override
+    public void draw(Canvas canvas, float scale, Paint paint) {
+        mFill.setScale(scale, scale);
+        canvas.drawCircle(mCenterX, mCenterY, mRadius * scale, paint);
+    }
+
+    @Override
+    public void addOutline(Path path, float scale, float strokeWidth) {
+        float radius = mRadius * scale;
+        path.addCircle(mCenterX, mCenterY, radius, Direction.CW);
+
+        // the hole is wound the other way round, so it is not filled
+        float innerRadius = radius - strokeWidth;
+        if (innerRadius > 0) {
+            path.addCircle(mCenterX, mCenterY, innerRadius, Direction.CCW);
+        }
+    }
+
+    @Override
+    public void setFill(int fillMode, int color) {
+        mFill.set(fillMode, color);
     }
 
     public float getCenterX(){
@@ -35,4 +69,8 @@ public class PulseCircle implements PulseShape {
     public float getCenterY(){
         return mCenterY;
     }
+
+    public float getRadius() {
+        return mRadius;
+    }
 }
@@ -0,0 +1,467 @@
+package pl.bclogic.pulsator4droid.library.field;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.VisibleForTesting;
+
+import pl.bclogic.pulsator4droid.library.PulseConfig;
+import pl.bclogic.pulsator4droid.library.PulseShape;
+import pl.bclogic.pulsator4droid.library.R;
+import pl.bclogic.pulsator4droid.library.ScalablePulseShape;
+import pl.bclogic.pulsator4droid.library.circle.PulseCircle;
+import pl.bclogic.pulsator4droid.library.roundedrectangle.PulseRoundedRectangle;
+
+/**
+ * A single view hosting many pulse emitters, e.g. pulsing points on a map. All emitters are
+ * animated from one clock and drawn in one pass, emitters outside of the visible area are
+ * skipped.
+ *
+ * <p>Emitters are kept in parallel arrays allocated up front (see {@link #setCapacity(int)}), so
+ * adding, removing or moving an emitter does not allocate. Emitters are referred to by the id
+ * returned from {@link #addEmitter(float, float, float, float, int, int)}, which stays valid until
+ * the emitter is removed.
+ *
+ * <p>The rings are configured with {@code pulse_count}, {@code pulse_duration} and
+ * {@code pulse_color}, which have the defaults and checks of {@link PulseConfig}. The other
+ * pulse attributes do not apply to a field and are ignored.
+ */
+public class PulseField extends View {
+
+    public static final int NO_EMITTER = -1;
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private int mCount;
+    private int mDuration;
+    private int mColor;
+
+    private boolean mIsStarted;
+    private long mStartTime;
+
+    // emitter data, indexed by slot; slots [0, mEmitterCount) are in use
+    private float[] mX;
+    private float[] mY;
+    private float[] mWidth;
+    private float[] mHeight;
+    private float[] mPhase;
+    private int[] mColors;
+    private int[] mShapes;
+    private int[] mIdOfSlot;
+
+    // maps ids to slots, free ids are kept on a stack
+    private int[] mSlotOfId;
+    private int[] mFreeIds;
+    private int mFreeIdCount;
+    private int mEmitterCount;
+
+    private final Paint mPaint;
+    private final ScalablePulseShape[] mPulseShapes;
+    private final Rect mClipBounds = new Rect();
+
+    public PulseField(Context context) {
+        this(context, null, 0);
+    }
+
+    public PulseField(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public PulseField(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        // get attributes
+        TypedArray attr = context.getTheme().obtainStyledAttributes(
+                attrs, R.styleable.Pulsator4Droid, 0, 0);
+
+        try {
+            PulseConfig config = new PulseConfig(context);
+            config.read(attr);
+            mCount = config.getCount();
+            mDuration = config.getDuration();
+            mColor = config.getColor();
+
+        } finally {
+            attr.recycle();
+        }
+
+        mPaint = new Paint();
+        mPaint.setAntiAlias(true);
+        mPaint.setStyle(Paint.Style.FILL);
+
+        // indexed by the SHAPE_* constants of PulseShape
+        mPulseShapes = new ScalablePulseShape[] {
+                new PulseCircle(mPaint),
+                new PulseRoundedRectangle(mPaint)
+        };
+
+        setCapacity(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Set the maximum number of emitters. This is the only operation that allocates, call it
+     * before adding the emitters. The capacity can only grow, existing emitters and their ids
+     * are kept.
+     *
+     * @param capacity Maximum number of emitters
+     */
+    public void setCapacity(int capacity) {
+        int oldCapacity = mSlotOfId != null ? mSlotOfId.length : 0;
+        if (capacity < oldCapacity) {
+            throw new IllegalArgumentException("Capacity cannot be reduced");
+        }
+
+        mX = copyOf(mX, capacity);
+        mY = copyOf(mY, capacity);
+        mWidth = copyOf(mWidth, capacity);
+        mHeight = copyOf(mHeight, capacity);
+        mPhase = copyOf(mPhase, capacity);
+        mColors = copyOf(mColors, capacity);
+        mShapes = copyOf(mShapes, capacity);
+        mIdOfSlot = copyOf(mIdOfSlot, capacity);
+        mSlotOfId = copyOf(mSlotOfId, capacity);
+
+        // rebuild the stack of free ids, ids handed out before are kept
+        mFreeIds = new int[capacity];
+        mFreeIdCount = 0;
+        for (int id = capacity - 1; id >= 0; id--) {
+            if (id >= oldCapacity || mSlotOfId[id] == NO_EMITTER) {
+                mSlotOfId[id] = NO_EMITTER;
+                mFreeIds[mFreeIdCount++] = id;
+            }
+        }
+    }
+
+    public int getCapacity() {
+        return mSlotOfId.length;
+    }
+
+    public int getEmitterCount() {
+        return mEmitterCount;
+    }
+
+    /**
+     * Add an emitter with the default color and a circular shape.
+     *
+     * @param x Horizontal position of the emitter center in pixels
+     * @param y Vertical position of the emitter center in pixels
+     * @param size Diameter of the largest ring in pixels
+     * @return Id of the emitter
+     */
+    public int addEmitter(float x, float y, float size) {
+        return addEmitter(x, y, size, size, mColor, PulseShape.SHAPE_CIRCLE);
+    }
+
+    /**
+     * Add an emitter.
+     *
+     * @param x Horizontal position of the emitter center in pixels
+     * @param y Vertical position of the emitter center in pixels
+     * @param width Width of the largest ring in pixels
+     * @param height Height of the largest ring in pixels
+     * @param color ARGB color of the emitter
+     * @param shape One of the {@code SHAPE_*} constants of {@link PulseShape}
+     * @return Id of the emitter
+     */
+    public int addEmitter(float x, float y, float width, float height, @ColorInt int color,
+            int shape) {
+        if (shape < 0 || shape >= mPulseShapes.length) {
+            throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+        if (mFreeIdCount == 0) {
+            throw new IllegalStateException("Capacity of " + getCapacity() + " emitters reached");
+        }
+
+        int id = mFreeIds[--mFreeIdCount];
+        int slot = mEmitterCount++;
+
+        mSlotOfId[id] = slot;
+        mIdOfSlot[slot] = id;
+        mX[slot] = x;
+        mY[slot] = y;
+        mWidth[slot] = width;
+        mHeight[slot] = height;
+        mPhase[slot] = 0;
+        mColors[slot] = color;
+        mShapes[slot] = shape;
+
+        invalidateEmitters();
+        return id;
+    }
+
+    /**
+     * Remove an emitter. Its id may be handed out again by a later add.
+     *
+     * @param id Id of the emitter
+     */
+    public void removeEmitter(int id) {
+        int slot = getSlot(id);
+        int last = --mEmitterCount;
+
+        // move the last emitter into the gap to keep the slots dense
+        if (slot != last) {
+            mX[slot] = mX[last];
+            mY[slot] = mY[last];
+            mWidth[slot] = mWidth[last];
+            mHeight[slot] = mHeight[last];
+            mPhase[slot] = mPhase[last];
+            mColors[slot] = mColors[last];
+            mShapes[slot] = mShapes[last];
+            mIdOfSlot[slot] = mIdOfSlot[last];
+            mSlotOfId[mIdOfSlot[slot]] = slot;
+        }
+
+        mSlotOfId[id] = NO_EMITTER;
+        mFreeIds[mFreeIdCount++] = id;
+        invalidateEmitters();
+    }
+
+    /**
+     * Remove all emitters.
+     */
+    public void clearEmitters() {
+        while (mEmitterCount > 0) {
+            removeEmitter(mIdOfSlot[mEmitterCount - 1]);
+        }
+    }
+
+    /**
+     * Move an emitter.
+     *
+     * @param id Id of the emitter
+     * @param x Horizontal position of the emitter center in pixels
+     * @param y Vertical position of the emitter center in pixels
+     */
+    public void moveEmitter(int id, float x, float y) {
+        int slot = getSlot(id);
+        mX[slot] = x;
+        mY[slot] = y;
+        invalidateEmitters();
+    }
+
+    /**
+     * Resize an emitter.
+     *
+     * @param id Id of the emitter
+     * @param width Width of the largest ring in pixels
+     * @param height Height of the largest ring in pixels
+     */
+    public void setEmitterSize(int id, float width, float height) {
+        int slot = getSlot(id);
+        mWidth[slot] = width;
+        mHeight[slot] = height;
+        invalidateEmitters();
+    }
+
+    /**
+     * Set the color of an emitter.
+     *
+     * @param id Id of the emitter
+     * @param color ARGB color of the emitter
+     */
+    public void setEmitterColor(int id, @ColorInt int color) {
+        mColors[getSlot(id)] = color;
+        invalidateEmitters();
+    }
+
+    /**
+     * Set the shape of an emitter.
+     *
+     * @param id Id of the emitter
+     * @param shape One of the {@code SHAPE_*} constants of {@link PulseShape}
+     */
+    public void setEmitterShape(int id, int shape) {
+        if (shape < 0 || shape >= mPulseShapes.length) {
+            throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+        mShapes[getSlot(id)] = shape;
+        invalidateEmitters();
+    }
+
+    /**
+     * Offset the pulse of an emitter against the shared clock, so that neighbouring emitters do
+     * not pulse in unison.
+     *
+     * @param id Id of the emitter
+     * @param phase Offset as a fraction of the pulse duration, between 0 and 1
+     */
+    public void setEmitterPhase(int id, float phase) {
+        mPhase[getSlot(id)] = phase - (float) Math.floor(phase);
+        invalidateEmitters();
+    }
+
+    /**
+     * Start pulse animation of all emitters.
+     */
+    public void start() {
+        if (mIsStarted) {
+            return;
+        }
+        mIsStarted = true;
+        mStartTime = SystemClock.uptimeMillis();
+        invalidate();
+    }
+
+    /**
+     * Stop pulse animation of all emitters.
+     */
+    public void stop() {
+        mIsStarted = false;
+        invalidate();
+    }
+
+    public boolean isStarted() {
+        return mIsStarted;
+    }
+
+    /**
+     * Get number of rings per emitter.
+     *
+     * @return Number of rings
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Set number of rings per emitter.
+     *
+     * @param count Number of rings
+     */
+    public void setCount(int count) {
+        PulseConfig.checkCount(count);
+        mCount = count;
+        invalidate();
+    }
+
+    /**
+     * Get pulse duration.
+     *
+     * @return Duration of single pulse in milliseconds
+     */
+    public int getDuration() {
+        return mDuration;
+    }
+
+    /**
+     * Set single pulse duration.
+     *
+     * @param millis Pulse duration in milliseconds, 0 draws no rings
+     */
+    public void setDuration(int millis) {
+        PulseConfig.checkDuration(millis);
+        mDuration = millis;
+        invalidate();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (mEmitterCount == 0 || mCount == 0 || mDuration == 0) {
+            return;
+        }
+
+        float progress = mIsStarted
+                ? ((SystemClock.uptimeMillis() - mStartTime) % mDuration) / (float) mDuration
+                : 0;
+
+        // emitters entirely outside of the visible area are skipped
+        if (!canvas.getClipBounds(mClipBounds)) {
+            return;
+        }
+        float clipLeft = mClipBounds.left;
+        float clipTop = mClipBounds.top;
+        float clipRight = mClipBounds.right;
+        float clipBottom = mClipBounds.bottom;
+
+        for (int slot = 0; slot < mEmitterCount; slot++) {
+            float x = mX[slot];
+            float y = mY[slot];
+            float halfWidth = mWidth[slot] * 0.5f;
+            float halfHeight = mHeight[slot] * 0.5f;
+
+            if (x + halfWidth < clipLeft || x - halfWidth > clipRight
+                    || y + halfHeight < clipTop || y - halfHeight > clipBottom) {
+                continue;
+            }
+
+            ScalablePulseShape shape = mPulseShapes[mShapes[slot]];
+            int color = mColors[slot];
+            int alpha = Color.alpha(color);
+            float left = x - halfWidth;
+            float top = y - halfHeight;
+
+            shape.setSize(mWidth[slot], mHeight[slot]);
+            canvas.translate(left, top);
+
+            for (int i = 0; i < mCount; i++) {
+                float offsetProgress = (1.0f / mCount * i + mPhase[slot] + progress) % 1.0f;
+                if (offsetProgress <= 0) {
+                    continue;
+                }
+
+                mPaint.setColor(color);
+                mPaint.setAlpha((int) (alpha * (1 - offsetProgress)));
+                shape.draw(canvas, offsetProgress);
+            }
+            canvas.translate(-left, -top);
+        }
+
+        if (mIsStarted) {
+            postInvalidateOnAnimation();
+        }
+    }
+
+    @VisibleForTesting
+    float getEmitterX(int id) {
+        return mX[getSlot(id)];
+    }
+
+    @VisibleForTesting
+    float getEmitterY(int id) {
+        return mY[getSlot(id)];
+    }
+
+    @VisibleForTesting
+    int getEmitterColor(int id) {
+        return mColors[getSlot(id)];
+    }
+
+    private int getSlot(int id) {
+        int slot = id >= 0 && id < mSlotOfId.length ? mSlotOfId[id] : NO_EMITTER;
+        if (slot == NO_EMITTER) {
+            throw new IllegalArgumentException("Unknown emitter " + id);
+        }
+        return slot;
+    }
+
+    private void invalidateEmitters() {
+        // a running field redraws on the next frame anyway
+        if (!mIsStarted) {
+            invalidate();
+        }
+    }
+
+    private static float[] copyOf(float[] array, int length) {
+        float[] copy = new float[length];
+        if (array != null) {
+            System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+        }
+        return copy;
+    }
+
+    private static int[] copyOf(int[] array, int length) {
+        int[] copy = new int[length];
+        if (array != null) {
+            System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,344 @@
+package pl.bclogic.pulsator4droid.library.path;
+
+import android.graphics.Path;
+
+/**
+ * Parses path data, the format of {@code android:pathData} in vector drawables and of the
+ * {@code d} attribute in SVG, into a {@link Path}. All the commands are supported, absolute and
+ * relative, with implicit repetition; elliptical arcs are converted into cubic curves.
+ */
+final class PathDataParser {
+
+    private static final String COMMANDS = "MmLlHhVvCcSsQqTtAaZz";
+
+    private final String mData;
+    private int mIndex;
+
+    private final Path mPath = new Path();
+    private float mX;
+    private float mY;
+    private float mStartX;
+    private float mStartY;
+    // last control point, reflected by the smooth curve commands
+    private float mControlX;
+    private float mControlY;
+
+    private PathDataParser(String data) {
+        mData = data;
+    }
+
+    /**
+     * Parse path data.
+     *
+     * @param pathData Path data, e.g. {@code "M0,0 L10,0 L5,8 Z"}
+     * @return A new path
+     * @throws IllegalArgumentException if the path data is malformed
+     */
+    static Path parse(String pathData) {
+        PathDataParser parser = new PathDataParser(pathData);
+        parser.parseCommands();
+        return parser.mPath;
+    }
+
+    private void parseCommands() {
+        char command = 0;
+        char previous = 0;
+        skipSeparators();
+        while (mIndex < mData.length()) {
+            char c = mData.charAt(mIndex);
+            if (COMMANDS.indexOf(c) >= 0) {
+                command = c;
+                mIndex++;
+            } else if (command == 0 || command == 'Z' || command == 'z') {
+                // only commands with arguments repeat implicitly
+                throw invalid();
+            }
+
+            parseSegment(command, previous);
+            previous = command;
+
+            // a move followed by more coordinates goes on with lines
+            if (command == 'M') {
+                command = 'L';
+            } else if (command == 'm') {
+                command = 'l';
+            }
+            skipSeparators();
+        }
+    }
+
+    private void parseSegment(char command, char previous) {
+        boolean relative = Character.isLowerCase(command);
+        float offsetX = relative ? mX : 0;
+        float offsetY = relative ? mY : 0;
+
+        switch (Character.toUpperCase(command)) {
+            case 'M':
+                mX = offsetX + nextFloat();
+                mY = offsetY + nextFloat();
+                mPath.moveTo(mX, mY);
+                mStartX = mX;
+                mStartY = mY;
+                setControl(mX, mY);
+                break;
+
+            case 'L':
+                mX = offsetX + nextFloat();
+                mY = offsetY + nextFloat();
+                mPath.lineTo(mX, mY);
+                setControl(mX, mY);
+                break;
+
+            case 'H':
+                mX = offsetX + nextFloat();
+                mPath.lineTo(mX, mY);
+                setControl(mX, mY);
+                break;
+
+            case 'V':
+                mY = offsetY + nextFloat();
+                mPath.lineTo(mX, mY);
+                setControl(mX, mY);
+                break;
+
+            case 'C': {
+                float x1 = offsetX + nextFloat();
+                float y1 = offsetY + nextFloat();
+                float x2 = offsetX + nextFloat();
+                float y2 = offsetY + nextFloat();
+                mX = offsetX + nextFloat();
+                mY = offsetY + nextFloat();
+                mPath.cubicTo(x1, y1, x2, y2, mX, mY);
+                setControl(x2, y2);
+                break;
+            }
+
+            case 'S': {
+                boolean smooth = "CcSs".indexOf(previous) >= 0;
+                float x1 = smooth ? 2 * mX - mControlX : mX;
+                float y1 = smooth ? 2 * mY - mControlY : mY;
+                float x2 = offsetX + nextFloat();
+                float y2 = offsetY + nextFloat();
+                mX = offsetX + nextFloat();
+                mY = offsetY + nextFloat();
+                mPath.cubicTo(x1, y1, x2, y2, mX, mY);
+                setControl(x2, y2);
+                break;
+            }
+
+            case 'Q': {
+                float x1 = offsetX + nextFloat();
+                float y1 = offsetY + nextFloat();
+                mX = offsetX + nextFloat();
+                mY = offsetY + nextFloat();
+                mPath.quadTo(x1, y1, mX, mY);
+                setControl(x1, y1);
+                break;
+            }
+
+            case 'T': {
+                boolean smooth = "QqTt".indexOf(previous) >= 0;
+                float x1 = smooth ? 2 * mX - mControlX : mX;
+                float y1 = smooth ? 2 * mY - mControlY : mY;
+                mX = offsetX + nextFloat();
+                mY = offsetY + nextFloat();
+                mPath.quadTo(x1, y1, mX, mY);
+                setControl(x1, y1);
+                break;
+            }
+
+            case 'A': {
+                float radiusX = nextFloat();
+                float radiusY = nextFloat();
+                float rotation = nextFloat();
+                boolean largeArc = nextFlag();
+                boolean sweep = nextFlag();
+                float x = offsetX + nextFloat();
+                float y = offsetY + nextFloat();
+                arcTo(x, y, radiusX, radiusY, rotation, largeArc, sweep);
+                mX = x;
+                mY = y;
+                setControl(mX, mY);
+                break;
+            }
+
+            default:
+                // Z, the current point goes back to the start of the sub-path
+                mPath.close();
+                mX = mStartX;
+                mY = mStartY;
+                setControl(mX, mY);
+                break;
+        }
+    }
+
+    private void setControl(float x, float y) {
+        mControlX = x;
+        mControlY = y;
+    }
+
+    /**
+     * Add an elliptical arc from the current point, converted from the endpoint parameterization
+     * of SVG to its center parameterization and drawn as cubic curves of at most 90 degrees.
+     */
+    private void arcTo(float x, float y, float radiusX, float radiusY, float rotation,
+            boolean largeArc, boolean sweep) {
+        if (x == mX && y == mY) {
+            return;
+        }
+        double rx = Math.abs(radiusX);
+        double ry = Math.abs(radiusY);
+        if (rx == 0 || ry == 0) {
+            mPath.lineTo(x, y);
+            return;
+        }
+
+        double angle = Math.toRadians(rotation);
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+
+        // the current point relative to the middle of the chord, in the axes of the ellipse
+        double dx = (mX - x) * 0.5;
+        double dy = (mY - y) * 0.5;
+        double x1 = cos * dx + sin * dy;
+        double y1 = -sin * dx + cos * dy;
+
+        // radii too small to join the points are scaled up just enough
+        double lambda = (x1 * x1) / (rx * rx) + (y1 * y1) / (ry * ry);
+        if (lambda > 1) {
+            double scale = Math.sqrt(lambda);
+            rx *= scale;
+            ry *= scale;
+        }
+
+        double rx2 = rx * rx;
+        double ry2 = ry * ry;
+        double numerator = rx2 * ry2 - rx2 * y1 * y1 - ry2 * x1 * x1;
+        double denominator = rx2 * y1 * y1 + ry2 * x1 * x1;
+        double coefficient = Math.sqrt(Math.max(0, numerator / denominator));
+        if (largeArc == sweep) {
+            coefficient = -coefficient;
+        }
+        double centerX1 = coefficient * rx * y1 / ry;
+        double centerY1 = -coefficient * ry * x1 / rx;
+        double centerX = cos * centerX1 - sin * centerY1 + (mX + x) * 0.5;
+        double centerY = sin * centerX1 + cos * centerY1 + (mY + y) * 0.5;
+
+        double start = Math.atan2((y1 - centerY1) / ry, (x1 - centerX1) / rx);
+        double end = Math.atan2((-y1 - centerY1) / ry, (-x1 - centerX1) / rx);
+        double sweepAngle = end - start;
+        if (sweep && sweepAngle < 0) {
+            sweepAngle += 2 * Math.PI;
+        } else if (!sweep && sweepAngle > 0) {
+            sweepAngle -= 2 * Math.PI;
+        }
+
+        int segments = (int) Math.ceil(Math.abs(sweepAngle) / (Math.PI * 0.5));
+        double delta = sweepAngle / segments;
+        // length of the tangents of a cubic curve approximating an arc of delta
+        double tangent = 4.0 / 3.0 * Math.tan(delta / 4);
+
+        double theta = start;
+        double fromX = mX;
+        double fromY = mY;
+        for (int i = 0; i < segments; i++) {
+            double cos1 = Math.cos(theta);
+            double sin1 = Math.sin(theta);
+            theta += delta;
+            double cos2 = Math.cos(theta);
+            double sin2 = Math.sin(theta);
+
+            // derivatives of the ellipse at both ends of the segment
+            double derivativeX1 = -rx * cos * sin1 - ry * sin * cos1;
+            double derivativeY1 = -rx * sin * sin1 + ry * cos * cos1;
+            double derivativeX2 = -rx * cos * sin2 - ry * sin * cos2;
+            double derivativeY2 = -rx * sin * sin2 + ry * cos * cos2;
+
+            // the last segment ends exactly on the end point, whatever the rounding
+            boolean last = i == segments - 1;
+            double toX = last ? x : centerX + rx * cos * cos2 - ry * sin * sin2;
+            double toY = last ? y : centerY + rx * sin * cos2 + ry * cos * sin2;
+
+            mPath.cubicTo((float) (fromX + tangent * derivativeX1),
+                    (float) (fromY + tangent * derivativeY1),
+                    (float) (toX - tangent * derivativeX2),
+                    (float) (toY - tangent * derivativeY2),
+                    (float) toX, (float) toY);
+            fromX = toX;
+            fromY = toY;
+        }
+    }
+
+    private float nextFloat() {
+        skipSeparators();
+        int length = mData.length();
+        int start = mIndex;
+
+        if (mIndex < length && (mData.charAt(mIndex) == '-' || mData.charAt(mIndex) == '+')) {
+            mIndex++;
+        }
+        // a second dot starts the next number, e.g. "0.5.5" is 0.5 and .5
+        boolean digits = false;
+        boolean dot = false;
+        while (mIndex < length) {
+            char c = mData.charAt(mIndex);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+            mIndex++;
+        }
+        if (!digits) {
+            throw invalid();
+        }
+
+        if (mIndex < length && (mData.charAt(mIndex) == 'e' || mData.charAt(mIndex) == 'E')) {
+            mIndex++;
+            if (mIndex < length
+                    && (mData.charAt(mIndex) == '-' || mData.charAt(mIndex) == '+')) {
+                mIndex++;
+            }
+            int exponent = mIndex;
+            while (mIndex < length && mData.charAt(mIndex) >= '0' && mData.charAt(mIndex) <= '9') {
+                mIndex++;
+            }
+            if (mIndex == exponent) {
+                throw invalid();
+            }
+        }
+
+        return Float.parseFloat(mData.substring(start, mIndex));
+    }
+
+    /**
+     * Read an arc flag, a single digit which needs no separator from what follows.
+     */
+    private boolean nextFlag() {
+        skipSeparators();
+        if (mIndex < mData.length()) {
+            char c = mData.charAt(mIndex);
+            if (c == '0' || c == '1') {
+                mIndex++;
+                return c == '1';
+            }
+        }
+        throw invalid();
+    }
+
+    private void skipSeparators() {
+        while (mIndex < mData.length()) {
+            char c = mData.charAt(mIndex);
+            if (c != ',' && !Character.isWhitespace(c)) {
+                break;
+            }
+            mIndex++;
+        }
+    }
+
+    private IllegalArgumentException invalid() {
+        return new IllegalArgumentException("Invalid path data: " + mData);
+    }
+}
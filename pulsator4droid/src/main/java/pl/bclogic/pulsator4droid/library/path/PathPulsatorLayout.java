@@ -0,0 +1,168 @@
+package pl.bclogic.pulsator4droid.library.path;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.AttributeSet;
+import android.view.animation.Interpolator;
+
+import pl.bclogic.pulsator4droid.library.PulsatorLayout;
+import pl.bclogic.pulsator4droid.library.PulseOutlines;
+import pl.bclogic.pulsator4droid.library.PulseShape;
+import pl.bclogic.pulsator4droid.library.R;
+import pl.bclogic.pulsator4droid.library.circle.CirclePulsatorLayout;
+
+/**
+ * Pulsator with rings of an arbitrary shape, given as a {@link Path} or as vector path data
+ * ({@code pulse_pathData}). All the rings are drawn by the layout itself from the geometry cached
+ * by {@link PulsePath}.
+ */
+public class PathPulsatorLayout extends PulsatorLayout {
+
+    private long mStartTime;
+    private Interpolator mInterpolatorImpl;
+    private final Paint mRingPaint = new Paint();
+    private final PulseOutlines mOutlines = new PulseOutlines();
+
+    public PathPulsatorLayout(Context context) {
+        this(context, null, 0);
+    }
+
+    public PathPulsatorLayout(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public PathPulsatorLayout(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        mInterpolatorImpl = CirclePulsatorLayout.createInterpolator(mInterpolator);
+
+        // the rings are drawn by the layout itself
+        setWillNotDraw(false);
+    }
+
+    @Override
+    protected PulseShape getPulseShape(Paint paint) {
+        return new PulsePath(paint);
+    }
+
+    @Override
+    protected void onReadAttributes(TypedArray attr) {
+        String pathData = attr.getString(R.styleable.Pulsator4Droid_pulse_pathData);
+        if (pathData != null) {
+            ((PulsePath) mPulseShape).setPathData(pathData);
+        }
+    }
+
+    /**
+     * Set the outline of the rings.
+     *
+     * @param path Outline of the rings in any coordinate space, it is fitted into the layout
+     */
+    public void setPath(Path path) {
+        ((PulsePath) mPulseShape).setPath(path);
+        invalidate();
+    }
+
+    /**
+     * Set the outline of the rings from vector path data.
+     *
+     * @param pathData Outline of the rings, the format of {@code android:pathData}
+     */
+    public void setPathData(String pathData) {
+        ((PulsePath) mPulseShape).setPathData(pathData);
+        invalidate();
+    }
+
+    /**
+     * Get current interpolator type used for animating.
+     *
+     * @return Interpolator type as int
+     */
+    public int getInterpolator() {
+        return mInterpolator;
+    }
+
+    /**
+     * Set current interpolator used for animating.
+     *
+     * @param type Interpolator type as int, one of the {@code INTERP_*} constants of
+     *     {@link CirclePulsatorLayout}
+     */
+    public void setInterpolator(int type) {
+        if (type != mInterpolator) {
+            mInterpolator = type;
+            mInterpolatorImpl = CirclePulsatorLayout.createInterpolator(type);
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (!isStarted() || mCount == 0 || mDuration == 0) {
+            return;
+        }
+
+        float progress = ((System.currentTimeMillis() - mStartTime) % (float) mDuration)
+                / mDuration;
+
+        updateRingColors();
+        mRingPaint.set(mPaint);
+        boolean outlined = mStyle == STYLE_STROKE;
+        PulsePath pulsePath = (PulsePath) mPulseShape;
+
+        float left = getOverflowX() + getPaddingLeft();
+        float top = getOverflowY() + getPaddingTop();
+
+        canvas.translate(left, top);
+        for (int i = 0; i < mCount; i++) {
+            if (!isRingDrawn(i)) {
+                continue;
+            }
+
+            float offsetProgress = (1.0f / mCount * i + progress) % 1.0f;
+            float value = mInterpolatorImpl.getInterpolation(offsetProgress);
+
+            int color = getRingColor(offsetProgress);
+            int alpha = (int) (Color.alpha(color) * (1 - value));
+            if (outlined) {
+                // collected here, all the outlines are drawn at once after the loop
+                Path outlines = mOutlines.getPath((color & 0x00ffffff) | (alpha << 24));
+                pulsePath.addOutline(outlines, value * mMaxScale, getRingStrokeWidth(value));
+                continue;
+            }
+
+            mRingPaint.setColor(color);
+            mRingPaint.setAlpha(alpha);
+            pulsePath.draw(canvas, value * mMaxScale, mRingPaint);
+        }
+        if (outlined) {
+            mOutlines.draw(canvas, mRingPaint);
+        }
+        canvas.translate(-left, -top);
+
+        scheduleRedraw();
+    }
+
+    @Override
+    public void start() {
+        mIsStarted = true;
+        mStartTime = System.currentTimeMillis();
+        invalidate();
+    }
+
+    @Override
+    public void stop() {
+        mIsStarted = false;
+        invalidate();
+    }
+
+    @Override
+    protected void reset() {
+        // the rings are derived from the clock on every frame, there is nothing to rebuild
+        invalidate();
+    }
+}
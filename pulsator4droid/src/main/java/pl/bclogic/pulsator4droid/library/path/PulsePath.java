@@ -0,0 +1,113 @@
+package pl.bclogic.pulsator4droid.library.path;
+
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+import pl.bclogic.pulsator4droid.library.PulseFill;
+import pl.bclogic.pulsator4droid.library.ScalablePulseShape;
+
+/**
+ * Pulse of an arbitrary shape, e.g. a heart, a pin or a logo. The source path is fitted into the
+ * size of the shape once per size change, rings are drawn by scaling that cached geometry about
+ * the center with the canvas, so a frame costs no more than drawing the path itself.
+ */
+public class PulsePath implements ScalablePulseShape {
+
+    private final Paint mPaint;
+    private final PulseFill mFill;
+
+    private final Path mSource = new Path();
+    private final RectF mSourceBounds = new RectF();
+    private final Path mPath = new Path();
+    private final RectF mBounds = new RectF();
+    private final Matrix mMatrix = new Matrix();
+
+    private final Paint mStrokePaint = new Paint();
+    private final Matrix mRingMatrix = new Matrix();
+    private final Path mRingPath = new Path();
+    private final Path mOutlinePath = new Path();
+
+    public PulsePath(Paint paint) {
+        mPaint = paint;
+        mFill = new PulseFill(paint);
+        mStrokePaint.setStyle(Paint.Style.STROKE);
+    }
+
+    /**
+     * Set the outline of the pulse. The path is copied and fitted into the size of the shape,
+     * keeping its aspect ratio, so it can be given in any coordinate space.
+     *
+     * @param path Outline of the pulse
+     */
+    public void setPath(Path path) {
+        mSource.set(path);
+        mSource.computeBounds(mSourceBounds, true);
+        fit();
+    }
+
+    /**
+     * Set the outline of the pulse from vector path data, the format of
+     * {@code android:pathData} in vector drawables. Malformed path data throws an
+     * {@link IllegalArgumentException}.
+     *
+     * @param pathData Outline of the pulse as path data
+     */
+    public void setPathData(String pathData) {
+        setPath(PathDataParser.parse(pathData));
+    }
+
+    @Override
+    public void setSize(float width, float height) {
+        mBounds.set(0, 0, width, height);
+        mFill.setBounds(width * 0.5f, height * 0.5f, width * 0.5f, height * 0.5f);
+        fit();
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        canvas.drawPath(mPath, mPaint);
+    }
+
+    @Override
+    public void draw(Canvas canvas, float scale) {
+        draw(canvas, scale, mPaint);
+    }
+
+    @Override
+    public void draw(Canvas canvas, float scale, Paint paint) {
+        int saveCount = canvas.save();
+        canvas.scale(scale, scale, mBounds.centerX(), mBounds.centerY());
+        canvas.drawPath(mPath, paint);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * An arbitrary path has no inner edge to wind the hole of the outline along, so the outline
+     * is the area of the path stroked along its edge, computed into a reused path.
+     */
+    @Override
+    public void addOutline(Path path, float scale, float strokeWidth) {
+        mRingMatrix.setScale(scale, scale, mBounds.centerX(), mBounds.centerY());
+        mPath.transform(mRingMatrix, mRingPath);
+        mStrokePaint.setStrokeWidth(strokeWidth);
+        mStrokePaint.getFillPath(mRingPath, mOutlinePath);
+        path.addPath(mOutlinePath);
+    }
+
+    @Override
+    public void setFill(int fillMode, int color) {
+        mFill.set(fillMode, color);
+    }
+
+    private void fit() {
+        if (mSource.isEmpty() || mBounds.isEmpty()
+                || !mMatrix.setRectToRect(mSourceBounds, mBounds, Matrix.ScaleToFit.CENTER)) {
+            mPath.reset();
+            return;
+        }
+        mSource.transform(mMatrix, mPath);
+    }
+}
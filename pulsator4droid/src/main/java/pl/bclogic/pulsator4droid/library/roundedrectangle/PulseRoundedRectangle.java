@@ -2,28 +2,105 @@ package pl.bclogic.pulsator4droid.library.roundedrectangle;
 
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Path.Direction;
 import android.graphics.RectF;
 
-import pl.bclogic.pulsator4droid.library.PulseShape;
+import pl.bclogic.pulsator4droid.library.PulseFill;
+import pl.bclogic.pulsator4droid.library.ScalablePulseShape;
 
-public class PulseRoundedRectangle implements PulseShape {
+public class PulseRoundedRectangle implements ScalablePulseShape {
 
-    private RectF mRect;
+    private final RectF mRect = new RectF();
+    private final RectF mRingRect = new RectF();
     private Paint mPaint;
+    private final PulseFill mFill;
 
-    PulseRoundedRectangle(Paint paint) {
+    public PulseRoundedRectangle(Paint paint) {
         this.mPaint = paint;
+        this.mFill = new PulseFill(paint);
     }
 
     @Override
     public void setSize(float width, float height) {
-        mRect = new RectF(0, 0, width, height);
+        mRect.set(0, 0, width, height);
     }
 
     @Override
     public void draw(Canvas canvas) {
-        float radius = mRect.height() * 0.5f;
-        canvas.drawRoundRect(mRect, radius, radius, mPaint);
+        draw(canvas, 1);
+    }
+
+    @Override
+    public void draw(Canvas canvas, float scale) {
+        draw(canvas, scale, mPaint);
+    }
+
+    @Override
+    public void draw(Canvas canvas, float scale, Paint paint) {
+        float halfWidth = mRect.width() * scale * 0.5f;
+        float halfHeight = mRect.height() * scale * 0.5f;
+        mRingRect.set(mRect.centerX() - halfWidth, mRect.centerY() - halfHeight,
+                mRect.centerX() + halfWidth, mRect.centerY() + halfHeight);
+
+        setRingBounds(mRingRect.left, mRingRect.top, mRingRect.right, mRingRect.bottom);
+        canvas.drawRoundRect(mRingRect, halfHeight, halfHeight, paint);
+    }
+
+    @Override
+    public void addOutline(Path path, float scale, float strokeWidth) {
+        float halfWidth = mRect.width() * scale * 0.5f;
+        float halfHeight = mRect.height() * scale * 0.5f;
+        addOutline(path, mRect.centerX() - halfWidth, mRect.centerY() - halfHeight,
+                mRect.centerX() + halfWidth, mRect.centerY() + halfHeight, halfHeight,
+                strokeWidth);
+    }
+
+    @Override
+    public void setFill(int fillMode, int color) {
+        mFill.set(fillMode, color);
+    }
+
+    /**
+     * Fit the fill to a ring drawn directly by a layout or surface rather than through
+     * {@link #draw(Canvas)}, e.g. a ring growing from the mask instead of scaling from nothing.
+     *
+     * @param left Left edge of the ring
+     * @param top Top edge of the ring
+     * @param right Right edge of the ring
+     * @param bottom Bottom edge of the ring
+     */
+    public void setRingBounds(float left, float top, float right, float bottom) {
+        mFill.setBounds((left + right) * 0.5f, (top + bottom) * 0.5f,
+                (right - left) * 0.5f, (bottom - top) * 0.5f);
+    }
+
+    /**
+     * Add the outline of a ring laid out directly by a layout or surface rather than through
+     * {@link #addOutline(Path, float, float)}.
+     *
+     * @param path Path to add the outline to
+     * @param left Left edge of the ring
+     * @param top Top edge of the ring
+     * @param right Right edge of the ring
+     * @param bottom Bottom edge of the ring
+     * @param radius Corner radius of the ring
+     * @param strokeWidth Width of the outline in pixels
+     */
+    public void addOutline(Path path, float left, float top, float right, float bottom,
+            float radius, float strokeWidth) {
+        path.addRoundRect(left, top, right, bottom, radius, radius, Direction.CW);
+
+        // the hole is wound the other way round, so it is not filled
+        float innerLeft = left + strokeWidth;
+        float innerTop = top + strokeWidth;
+        float innerRight = right - strokeWidth;
+        float innerBottom = bottom - strokeWidth;
+        if (innerLeft < innerRight && innerTop < innerBottom) {
+            float innerRadius = Math.max(0, radius - strokeWidth);
+            path.addRoundRect(innerLeft, innerTop, innerRight, innerBottom, innerRadius,
+                    innerRadius, Direction.CCW);
+        }
     }
 
     RectF getRect() {
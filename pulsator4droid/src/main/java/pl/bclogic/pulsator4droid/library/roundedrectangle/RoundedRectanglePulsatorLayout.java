@@ -14,6 +14,7 @@ import android.graphics.RectF;
 import android.util.AttributeSet;
 
 import pl.bclogic.pulsator4droid.library.PulsatorLayout;
+import pl.bclogic.pulsator4droid.library.PulseOutlines;
 import pl.bclogic.pulsator4droid.library.PulseShape;
 
 public class RoundedRectanglePulsatorLayout extends PulsatorLayout {
@@ -28,6 +29,9 @@ public class RoundedRectanglePulsatorLayout extends PulsatorLayout {
     private Canvas mCanvas;
     private Paint mBitmapPaint;
     private Paint mMaskPaint;
+    private final RectF mSpriteRect = new RectF();
+    private final Paint mRingPaint = new Paint();
+    private final PulseOutlines mOutlines = new PulseOutlines();
 
     public RoundedRectanglePulsatorLayout(Context context) {
         this(context, null, 0);
@@ -48,14 +52,20 @@ public class RoundedRectanglePulsatorLayout extends PulsatorLayout {
     @Override
     protected void onDraw(Canvas canvas) {
 
-        RectF pulseRectangle = ((PulseRoundedRectangle) mPulseShape).getRect();
+        PulseRoundedRectangle pulseShape = (PulseRoundedRectangle) mPulseShape;
+        RectF pulseRectangle = pulseShape.getRect();
+
+        float width = getWidth();
+        float height = getHeight();
+        float centerX = width / 2;
+        float centerY = height / 2;
 
         if (shouldMaskBeInitialized()) {
 
             mMask = new Path();
-            float left = (pulseRectangle.right - pulseRectangle.left - mMaskWidth) * 0.5f;
+            float left = centerX - mMaskWidth * 0.5f;
             float right = left + mMaskWidth;
-            float top = (pulseRectangle.bottom - pulseRectangle.top - mMaskHeight) * 0.5f;
+            float top = centerY - mMaskHeight * 0.5f;
             float bottom = top + mMaskHeight;
             mMask.addRoundRect(
                     left, top, right, bottom, Integer.MAX_VALUE, Integer.MAX_VALUE, Direction.CW);
@@ -66,26 +76,61 @@ public class RoundedRectanglePulsatorLayout extends PulsatorLayout {
             mCanvas = new Canvas(mBitmap);
         }
 
-        float width = getWidth();
-        float height = getHeight();
+        // everything but the phase of the ring is the same for all the rings; the rings grow
+        // from the mask to the content scaled by the max scale
+        float maskHalfWidth = mMaskWidth * 0.5f;
+        float maskHalfHeight = mMaskHeight * 0.5f;
+        float growthX = pulseRectangle.width() * mMaxScale * 0.5f - maskHalfWidth;
+        float growthY = pulseRectangle.height() * mMaxScale * 0.5f - maskHalfHeight;
+        float progress = ((System.currentTimeMillis() - mStartTime) % (float) mDuration)
+                / mDuration;
+        float radius = pulseRectangle.height() * mMaxScale * 0.5f;
+
+        boolean outlined = mStyle == STYLE_STROKE;
+        Bitmap sprite = outlined ? null : getPulseSprite();
+
+        // the shared paint is left alone, the rings get their color and alpha on a copy
+        boolean transitioning = updateRingColors();
+        mRingPaint.set(mPaint);
 
         mCanvas.drawColor(Color.BLACK, Mode.CLEAR);
         for (int i = 0; i < mCount; i++) {
+            if (!isRingDrawn(i)) {
+                continue;
+            }
 
-            float maskLeft = (pulseRectangle.right - pulseRectangle.left - mMaskWidth) / 2;
-            float maskTop = (pulseRectangle.bottom - pulseRectangle.top - mMaskHeight) / 2;
-
-            float progress = ((System.currentTimeMillis() - mStartTime) % (float) mDuration) / mDuration;
             float offsetProgress = (1.0f / mCount * i + progress) % 1.0f;
-            float radius = height / 2;
 
-            float left = maskLeft - (maskLeft * offsetProgress);
-            float top = maskTop - (maskTop * offsetProgress);
-            float right = width - left;
-            float bottom = height - top;
+            float halfWidth = maskHalfWidth + growthX * offsetProgress;
+            float halfHeight = maskHalfHeight + growthY * offsetProgress;
+            float left = centerX - halfWidth;
+            float top = centerY - halfHeight;
+            float right = centerX + halfWidth;
+            float bottom = centerY + halfHeight;
+
+            int color = getRingColor(offsetProgress);
+            int alpha = (int) (Color.alpha(color) * ALPHA_MAX / 255f * (1 - offsetProgress));
+            if (outlined) {
+                // collected here, all the outlines are drawn at once after the loop
+                Path outlines = mOutlines.getPath((color & 0x00ffffff) | (alpha << 24));
+                pulseShape.addOutline(outlines, left, top, right, bottom, radius,
+                        getRingStrokeWidth(offsetProgress));
+                continue;
+            }
 
-            mPaint.setAlpha((int) (ALPHA_MAX * (1 - offsetProgress)));
-            mCanvas.drawRoundRect(left, top, right, bottom, radius, radius, mPaint);
+            mRingPaint.setColor(color);
+            mRingPaint.setAlpha(alpha);
+            if (sprite != null) {
+                mSpriteRect.set(left, top, right, bottom);
+                mCanvas.drawBitmap(sprite, null, mSpriteRect, mRingPaint);
+            } else {
+                pulseShape.setRingBounds(left, top, right, bottom);
+                mCanvas.drawRoundRect(left, top, right, bottom, radius, radius, mRingPaint);
+            }
+        }
+
+        if (outlined) {
+            mOutlines.draw(mCanvas, mRingPaint);
         }
 
         if (mMask != null) {
@@ -94,11 +139,20 @@ public class RoundedRectanglePulsatorLayout extends PulsatorLayout {
 
         canvas.drawBitmap(mBitmap, 0, 0, mBitmapPaint);
 
-        if (isStarted()) {
-            invalidate();
+        if (isStarted() || transitioning) {
+            scheduleRedraw();
         }
     }
 
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        // the bitmap and the mask are cached for the current size only
+        clear();
+        mMask = null;
+    }
+
     @Override
     protected PulseShape getPulseShape(Paint paint) {
         return new PulseRoundedRectangle(paint);
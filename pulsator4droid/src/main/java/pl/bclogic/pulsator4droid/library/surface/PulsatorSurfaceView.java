@@ -0,0 +1,784 @@
+package pl.bclogic.pulsator4droid.library.surface;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Path.Direction;
+import android.graphics.PixelFormat;
+import android.graphics.PorterDuff.Mode;
+import android.graphics.Rect;
+import android.graphics.Region.Op;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+import android.view.animation.Interpolator;
+
+import androidx.annotation.ColorInt;
+
+import pl.bclogic.pulsator4droid.library.PulsatorLayout;
+import pl.bclogic.pulsator4droid.library.PulseConfig;
+import pl.bclogic.pulsator4droid.library.PulseOutlines;
+import pl.bclogic.pulsator4droid.library.PulseShape;
+import pl.bclogic.pulsator4droid.library.R;
+import pl.bclogic.pulsator4droid.library.ScalablePulseShape;
+import pl.bclogic.pulsator4droid.library.circle.CirclePulsatorLayout;
+import pl.bclogic.pulsator4droid.library.circle.PulseCircle;
+import pl.bclogic.pulsator4droid.library.roundedrectangle.PulseRoundedRectangle;
+
+/**
+ * Pulse rendered into its own surface from a dedicated thread, for full-screen or many-ring
+ * pulses. Nothing is drawn on the UI thread, so jank on the UI thread does not affect the pulse
+ * and the cost of the pulse does not show up in the frame time of the UI thread.
+ *
+ * <p>It is configured with the same attributes and setters as {@link PulsatorLayout}, read and
+ * checked by the same {@link PulseConfig}, and draws the same {@link PulseShape}
+ * implementations, chosen with {@code pulse_shape} or {@link #setShape(int)}. Arbitrary paths
+ * are not supported, {@code pulse_pathData} is rejected. The largest ring fills the view inside
+ * its padding, with a max scale above 1 the rings start from that size divided by the max scale.
+ * Like in {@link pl.bclogic.pulsator4droid.library.roundedrectangle
+ * .RoundedRectanglePulsatorLayout}, rounded rectangle rings grow from the mask rather than from
+ * nothing. Frames are paced by a {@link Choreographer} of the render thread, and rendering pauses
+ * while the surface does not exist.
+ *
+ * <p>The surface is translucent and, like any {@link SurfaceView}, placed behind the window;
+ * use {@link #setZOrderMediaOverlay(boolean)} to draw the pulse over the window content.
+ */
+public class PulsatorSurfaceView extends SurfaceView implements SurfaceHolder.Callback {
+
+    private static final int DEFAULT_SHAPE = PulseShape.SHAPE_CIRCLE;
+
+    // configuration, written on the UI thread and read by the render thread under mLock
+    private final Object mLock = new Object();
+    private final PulseConfig mConfig;
+    private int mShape;
+    private float mCircularMaskRadius = PulsatorLayout.RADIUS_NONE;
+    private int mMaskWidth;
+    private int mMaskHeight;
+    private int mPaddingLeft;
+    private int mPaddingTop;
+    private int mPaddingRight;
+    private int mPaddingBottom;
+    private boolean mIsStarted;
+    private int mConfigVersion;
+
+    // held by the render thread while drawing, so that the surface is not destroyed under it
+    private final Object mSurfaceLock = new Object();
+    private boolean mHasSurface;
+
+    private HandlerThread mRenderThread;
+    private Renderer mRenderer;
+
+    public PulsatorSurfaceView(Context context) {
+        this(context, null, 0);
+    }
+
+    public PulsatorSurfaceView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public PulsatorSurfaceView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        // get attributes
+        TypedArray attr = context.getTheme().obtainStyledAttributes(
+                attrs, R.styleable.Pulsator4Droid, 0, 0);
+
+        mConfig = new PulseConfig(context);
+
+        try {
+            if (attr.hasValue(R.styleable.Pulsator4Droid_pulse_pathData)) {
+                throw new IllegalArgumentException(
+                        "pulse_pathData is not supported, use PathPulsatorLayout");
+            }
+            mConfig.read(attr);
+            mShape = attr.getInt(R.styleable.Pulsator4Droid_pulse_shape, DEFAULT_SHAPE);
+            checkShape(mShape);
+
+        } finally {
+            attr.recycle();
+        }
+
+        getHolder().setFormat(PixelFormat.TRANSLUCENT);
+        getHolder().addCallback(this);
+    }
+
+    /**
+     * Start pulse animation.
+     */
+    public void start() {
+        synchronized (mLock) {
+            mIsStarted = true;
+            mConfigVersion++;
+        }
+        resumeRendering();
+    }
+
+    /**
+     * Stop pulse animation.
+     */
+    public void stop() {
+        synchronized (mLock) {
+            mIsStarted = false;
+            mConfigVersion++;
+        }
+    }
+
+    /**
+     * Whether the pulse is running, a pulse with a finite repeat count stops by itself once its
+     * last ring has faded out.
+     *
+     * @return <code>true</code> if started and not finished yet
+     */
+    public boolean isStarted() {
+        synchronized (mLock) {
+            return mIsStarted;
+        }
+    }
+
+    /**
+     * Get number of pulses.
+     *
+     * @return Number of pulses
+     */
+    public int getCount() {
+        synchronized (mLock) {
+            return mConfig.getCount();
+        }
+    }
+
+    /**
+     * Set number of pulses.
+     *
+     * @param count Number of pulses
+     */
+    public void setCount(int count) {
+        synchronized (mLock) {
+            mConfig.setCount(count);
+            mConfigVersion++;
+        }
+    }
+
+    /**
+     * Get pulse duration.
+     *
+     * @return Duration of single pulse in milliseconds
+     */
+    public int getDuration() {
+        synchronized (mLock) {
+            return mConfig.getDuration();
+        }
+    }
+
+    /**
+     * Set single pulse duration.
+     *
+     * @param millis Pulse duration in milliseconds, 0 draws no rings
+     */
+    public void setDuration(int millis) {
+        synchronized (mLock) {
+            mConfig.setDuration(millis);
+            mConfigVersion++;
+        }
+    }
+
+    @ColorInt
+    public int getColor() {
+        synchronized (mLock) {
+            return mConfig.getColor();
+        }
+    }
+
+    /**
+     * Sets the current color of the pulse effect in integer.
+     *
+     * @param color : an integer representation of color
+     */
+    public void setColor(@ColorInt int color) {
+        synchronized (mLock) {
+            mConfig.setColor(color);
+            mConfigVersion++;
+        }
+    }
+
+    /**
+     * Get current interpolator type used for animating.
+     *
+     * @return Interpolator type as int
+     */
+    public int getInterpolator() {
+        synchronized (mLock) {
+            return mConfig.getInterpolator();
+        }
+    }
+
+    /**
+     * Set current interpolator used for animating.
+     *
+     * @param type Interpolator type as int, one of the {@code INTERP_*} constants of
+     *     {@link CirclePulsatorLayout}
+     */
+    public void setInterpolator(int type) {
+        synchronized (mLock) {
+            mConfig.setInterpolator(type);
+            mConfigVersion++;
+        }
+    }
+
+    public int getRepeat() {
+        synchronized (mLock) {
+            return mConfig.getRepeat();
+        }
+    }
+
+    /**
+     * Set how many times the pulse should repeat.
+     *
+     * @param repeat {@link PulsatorLayout#INFINITE} for infinite repeat. Also the default value.
+     */
+    public void setRepeat(int repeat) {
+        synchronized (mLock) {
+            mConfig.setRepeat(repeat);
+            mConfigVersion++;
+        }
+    }
+
+    public boolean isStartFromScratch() {
+        synchronized (mLock) {
+            return mConfig.isStartFromScratch();
+        }
+    }
+
+    /**
+     * Determines whether the animation starts empty and pulses are added gradually making
+     * the animation come from the center or have all the rings present at time of starting.
+     *
+     * @param startFromScratch <code>true</code> to add pulses one by one from the center.
+     * <code>true</code> by default.
+     */
+    public void setStartFromScratch(boolean startFromScratch) {
+        synchronized (mLock) {
+            mConfig.setStartFromScratch(startFromScratch);
+            mConfigVersion++;
+        }
+    }
+
+    public float getMaxScale() {
+        synchronized (mLock) {
+            return mConfig.getMaxScale();
+        }
+    }
+
+    /**
+     * Set the scale the pulses grow to. The largest ring always fills the view inside its
+     * padding, a scale above 1 makes the rings start from that size divided by the scale.
+     *
+     * @param maxScale Scale of the largest pulse, 1 by default
+     */
+    public void setMaxScale(float maxScale) {
+        synchronized (mLock) {
+            mConfig.setMaxScale(maxScale);
+            mConfigVersion++;
+        }
+    }
+
+    public int getFillMode() {
+        synchronized (mLock) {
+            return mConfig.getFillMode();
+        }
+    }
+
+    /**
+     * Set how the pulses are filled, see {@link PulsatorLayout#setFillMode(int)}.
+     *
+     * @param fillMode One of the {@code FILL_*} constants of
+     *     {@link pl.bclogic.pulsator4droid.library.PulseFill}
+     */
+    public void setFillMode(int fillMode) {
+        synchronized (mLock) {
+            mConfig.setFillMode(fillMode);
+            mConfigVersion++;
+        }
+    }
+
+    public int getStyle() {
+        synchronized (mLock) {
+            return mConfig.getStyle();
+        }
+    }
+
+    /**
+     * Set whether the pulses are filled (the default) or outlined. Outlined rings are batched
+     * into one path per quantized alpha level, see {@link PulseOutlines}.
+     *
+     * @param style {@link PulsatorLayout#STYLE_FILL} or {@link PulsatorLayout#STYLE_STROKE}
+     */
+    public void setStyle(int style) {
+        synchronized (mLock) {
+            mConfig.setStyle(style);
+            mConfigVersion++;
+        }
+    }
+
+    public float getStrokeWidth() {
+        synchronized (mLock) {
+            return mConfig.getStrokeWidth();
+        }
+    }
+
+    /**
+     * Set the width of outlined rings, see {@link #setStyle(int)}. Defaults to 2dp.
+     *
+     * @param width Width in pixels
+     */
+    public void setStrokeWidth(float width) {
+        synchronized (mLock) {
+            mConfig.setStrokeWidth(width);
+            mConfigVersion++;
+        }
+    }
+
+    public float getStrokeTaper() {
+        synchronized (mLock) {
+            return mConfig.getStrokeTaper();
+        }
+    }
+
+    /**
+     * Let outlined rings get thinner as they grow, see
+     * {@link PulsatorLayout#setStrokeTaper(float)}.
+     *
+     * @param taper Fraction between 0 (no tapering, the default) and 1
+     */
+    public void setStrokeTaper(float taper) {
+        synchronized (mLock) {
+            mConfig.setStrokeTaper(taper);
+            mConfigVersion++;
+        }
+    }
+
+    /**
+     * Get the shape of the pulse.
+     *
+     * @return One of the {@code SHAPE_*} constants of {@link PulseShape}
+     */
+    public int getShape() {
+        synchronized (mLock) {
+            return mShape;
+        }
+    }
+
+    /**
+     * Set the shape of the pulse.
+     *
+     * @param shape One of the {@code SHAPE_*} constants of {@link PulseShape}
+     */
+    public void setShape(int shape) {
+        checkShape(shape);
+        synchronized (mLock) {
+            mShape = shape;
+            mConfigVersion++;
+        }
+    }
+
+    /**
+     * The pulse animation will be clipped in a concentric circle with a given radius. Replaces
+     * the rounded rectangle mask.
+     *
+     * @param radius Radius in pixels for the circle masking out the animation in the center.
+     * Providing a value &lt;=0 disables the masking.
+     */
+    public void setCenterCircularMaskRadius(float radius) {
+        synchronized (mLock) {
+            mCircularMaskRadius = radius > 0 ? radius : PulsatorLayout.RADIUS_NONE;
+            mMaskWidth = 0;
+            mMaskHeight = 0;
+            mConfigVersion++;
+        }
+    }
+
+    /**
+     * The pulse animation will be clipped in a rounded rectangle of the given size. Replaces the
+     * circular mask.
+     *
+     * @param width Width in pixels for the rounded rectangle masking out the animation in the
+     * center. Providing a value &lt;=0 disables the masking.
+     * @param height Height in pixels for the rounded rectangle masking out the animation in the
+     * center. Providing a value &lt;=0 disables the masking.
+     */
+    public void setCenterRoundedRectangleMask(int width, int height) {
+        synchronized (mLock) {
+            boolean enabled = width > 0 && height > 0;
+            mMaskWidth = enabled ? width : 0;
+            mMaskHeight = enabled ? height : 0;
+            mCircularMaskRadius = PulsatorLayout.RADIUS_NONE;
+            mConfigVersion++;
+        }
+    }
+
+    private static void checkShape(int shape) {
+        if (shape != PulseShape.SHAPE_CIRCLE && shape != PulseShape.SHAPE_ROUNDED_RECTANGLE) {
+            throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+
+        // the render thread cannot read the padding of the view, it gets a copy
+        synchronized (mLock) {
+            if (mPaddingLeft != getPaddingLeft() || mPaddingTop != getPaddingTop()
+                    || mPaddingRight != getPaddingRight()
+                    || mPaddingBottom != getPaddingBottom()) {
+                mPaddingLeft = getPaddingLeft();
+                mPaddingTop = getPaddingTop();
+                mPaddingRight = getPaddingRight();
+                mPaddingBottom = getPaddingBottom();
+                mConfigVersion++;
+            }
+        }
+        resumeRendering();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+
+        mRenderThread = new HandlerThread("PulsatorRenderer");
+        mRenderThread.start();
+        mRenderer = new Renderer(new Handler(mRenderThread.getLooper()));
+        resumeRendering();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+
+        mRenderer.pause();
+        mRenderThread.quitSafely();
+        mRenderThread = null;
+        mRenderer = null;
+    }
+
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+        synchronized (mSurfaceLock) {
+            mHasSurface = true;
+        }
+        resumeRendering();
+    }
+
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+        synchronized (mLock) {
+            mConfigVersion++;
+        }
+        resumeRendering();
+    }
+
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+        // the surface must not be touched after this returns, the renderer checks the flag under
+        // the same lock it holds while drawing
+        synchronized (mSurfaceLock) {
+            mHasSurface = false;
+        }
+        if (mRenderer != null) {
+            mRenderer.pause();
+        }
+    }
+
+    private void resumeRendering() {
+        if (mRenderer != null) {
+            mRenderer.resume();
+        }
+    }
+
+    /**
+     * Draws the pulse on the render thread. Everything but the messages posted by
+     * {@link #resume()} and {@link #pause()} runs on that thread.
+     */
+    private class Renderer implements Choreographer.FrameCallback {
+
+        private final Handler mHandler;
+        private Choreographer mChoreographer;
+        private boolean mRunning;
+        private long mStartTime;
+
+        // each shape has its own paint, so that their fills do not replace each other's shader
+        private final Paint[] mPaints = new Paint[] {
+                new Paint(),
+                new Paint()
+        };
+        private final ScalablePulseShape[] mPulseShapes = new ScalablePulseShape[] {
+                new PulseCircle(mPaints[PulseShape.SHAPE_CIRCLE]),
+                new PulseRoundedRectangle(mPaints[PulseShape.SHAPE_ROUNDED_RECTANGLE])
+        };
+        private final Paint mOutlinePaint = new Paint();
+        private final PulseOutlines mOutlines = new PulseOutlines();
+        private final Path mMask = new Path();
+
+        // snapshot of the configuration, refreshed when the version changes
+        private int mSeenVersion = -1;
+        private final PulseConfig mFrameConfig = new PulseConfig(getContext());
+        private Interpolator mFrameInterpolator;
+        private int mFrameShapeType;
+        private boolean mFrameStarted;
+        private boolean mFrameMasked;
+        private float mContentLeft;
+        private float mContentTop;
+        private float mContentWidth;
+        private float mContentHeight;
+        private float mMaskHalfWidth;
+        private float mMaskHalfHeight;
+
+        Renderer(Handler handler) {
+            mHandler = handler;
+            for (Paint paint : mPaints) {
+                paint.setAntiAlias(true);
+                paint.setStyle(Paint.Style.FILL);
+            }
+            mOutlinePaint.setAntiAlias(true);
+        }
+
+        void resume() {
+            mHandler.post(mResume);
+        }
+
+        void pause() {
+            mHandler.post(mPause);
+        }
+
+        private final Runnable mResume = new Runnable() {
+
+            @Override
+            public void run() {
+                if (mChoreographer == null) {
+                    mChoreographer = Choreographer.getInstance();
+                }
+                if (!mRunning) {
+                    mRunning = true;
+                    mChoreographer.postFrameCallback(Renderer.this);
+                }
+            }
+
+        };
+
+        private final Runnable mPause = new Runnable() {
+
+            @Override
+            public void run() {
+                if (mRunning) {
+                    mRunning = false;
+                    mChoreographer.removeFrameCallback(Renderer.this);
+                }
+            }
+
+        };
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (!mRunning) {
+                return;
+            }
+
+            long frameTime = frameTimeNanos / 1000000;
+            SurfaceHolder holder = getHolder();
+
+            boolean changed;
+            synchronized (mLock) {
+                changed = mSeenVersion != mConfigVersion;
+                if (changed) {
+                    snapshot(holder);
+                }
+            }
+
+            if (mFrameStarted && mStartTime == 0) {
+                mStartTime = frameTime;
+            } else if (!mFrameStarted) {
+                mStartTime = 0;
+            }
+
+            boolean finished = false;
+            synchronized (mSurfaceLock) {
+                if (!mHasSurface) {
+                    mRunning = false;
+                    return;
+                }
+
+                // a stopped pulse only needs to be cleared once after a change
+                if (mFrameStarted || changed) {
+                    finished = !draw(holder, frameTime) && mFrameStarted;
+                }
+            }
+
+            if (finished) {
+                // the last ring of a finite repeat has faded out, unless restarted meanwhile
+                synchronized (mLock) {
+                    if (mSeenVersion == mConfigVersion) {
+                        mIsStarted = false;
+                        mConfigVersion++;
+                    }
+                }
+            }
+
+            if (mFrameStarted) {
+                mChoreographer.postFrameCallback(this);
+            } else {
+                mRunning = false;
+            }
+        }
+
+        private void snapshot(SurfaceHolder holder) {
+            mSeenVersion = mConfigVersion;
+            mFrameConfig.set(mConfig);
+            mFrameInterpolator = CirclePulsatorLayout.createInterpolator(
+                    mFrameConfig.getInterpolator());
+            mFrameShapeType = mShape;
+            mFrameStarted = mIsStarted;
+
+            // the largest ring fills the frame inside the padding, the content is that area
+            // divided by the max scale, centered
+            Rect frame = holder.getSurfaceFrame();
+            float maxScale = mFrameConfig.getMaxScale();
+            float availableWidth = Math.max(0, frame.width() - mPaddingLeft - mPaddingRight);
+            float availableHeight = Math.max(0, frame.height() - mPaddingTop - mPaddingBottom);
+            float centerX = mPaddingLeft + availableWidth * 0.5f;
+            float centerY = mPaddingTop + availableHeight * 0.5f;
+            mContentWidth = availableWidth / maxScale;
+            mContentHeight = availableHeight / maxScale;
+            mContentLeft = centerX - mContentWidth * 0.5f;
+            mContentTop = centerY - mContentHeight * 0.5f;
+
+            ScalablePulseShape shape = mPulseShapes[mFrameShapeType];
+            shape.setSize(mContentWidth, mContentHeight);
+            shape.setFill(mFrameConfig.getFillMode(), mFrameConfig.getColor());
+            mOutlinePaint.setShader(null);
+
+            mMask.reset();
+            mMaskHalfWidth = 0;
+            mMaskHalfHeight = 0;
+            if (mCircularMaskRadius > 0) {
+                mMask.addCircle(centerX, centerY, mCircularMaskRadius, Direction.CW);
+            } else if (mMaskWidth > 0 && mMaskHeight > 0) {
+                mMaskHalfWidth = mMaskWidth * 0.5f;
+                mMaskHalfHeight = mMaskHeight * 0.5f;
+                mMask.addRoundRect(centerX - mMaskHalfWidth, centerY - mMaskHalfHeight,
+                        centerX + mMaskHalfWidth, centerY + mMaskHalfHeight,
+                        Integer.MAX_VALUE, Integer.MAX_VALUE, Direction.CW);
+            }
+            mFrameMasked = !mMask.isEmpty();
+        }
+
+        /**
+         * Draw a frame of the pulse.
+         *
+         * @return <code>true</code> if a ring is still running after this frame
+         */
+        private boolean draw(SurfaceHolder holder, long frameTime) {
+            Canvas canvas = Build.VERSION.SDK_INT >= Build.VERSION_CODES.M
+                    ? holder.lockHardwareCanvas() : holder.lockCanvas();
+            if (canvas == null) {
+                return true;
+            }
+
+            try {
+                canvas.drawColor(Color.TRANSPARENT, Mode.CLEAR);
+                int count = mFrameConfig.getCount();
+                int duration = mFrameConfig.getDuration();
+                if (!mFrameStarted || count == 0 || duration == 0) {
+                    return false;
+                }
+                if (mFrameMasked) {
+                    canvas.clipPath(mMask, Op.DIFFERENCE);
+                }
+                canvas.translate(mContentLeft, mContentTop);
+                return drawRings(canvas, frameTime - mStartTime, count, duration);
+            } finally {
+                holder.unlockCanvasAndPost(canvas);
+            }
+        }
+
+        private boolean drawRings(Canvas canvas, long elapsed, int count, int duration) {
+            ScalablePulseShape shape = mPulseShapes[mFrameShapeType];
+            Paint paint = mPaints[mFrameShapeType];
+            boolean rectangle = mFrameShapeType == PulseShape.SHAPE_ROUNDED_RECTANGLE;
+            boolean outlined = mFrameConfig.getStyle() == PulsatorLayout.STYLE_STROKE;
+            int repeat = mFrameConfig.getRepeat();
+            float maxScale = mFrameConfig.getMaxScale();
+            int color = mFrameConfig.getColor();
+            int alpha = Color.alpha(color);
+
+            // rounded rectangle rings grow from the mask to the largest ring, as in
+            // RoundedRectanglePulsatorLayout
+            float centerX = mContentWidth * 0.5f;
+            float centerY = mContentHeight * 0.5f;
+            float radius = centerY * maxScale;
+            float growWidth = centerX * maxScale - mMaskHalfWidth;
+            float growHeight = centerY * maxScale - mMaskHalfHeight;
+
+            boolean running = false;
+            for (int i = 0; i < count; i++) {
+                // the same timing as the animators of CirclePulsatorLayout
+                long delay = (long) i * duration / count;
+                long time = mFrameConfig.isStartFromScratch()
+                        ? elapsed - delay : elapsed + duration - delay;
+                if (time < 0) {
+                    running = true;
+                    continue;
+                }
+                if (repeat != PulsatorLayout.INFINITE && time / duration > repeat) {
+                    continue;
+                }
+                running = true;
+
+                float value = mFrameInterpolator.getInterpolation(
+                        (time % duration) / (float) duration);
+                if (value <= 0) {
+                    continue;
+                }
+                int ringAlpha = (int) (alpha * (1 - value));
+
+                float halfWidth = mMaskHalfWidth + growWidth * value;
+                float halfHeight = mMaskHalfHeight + growHeight * value;
+                float left = centerX - halfWidth;
+                float top = centerY - halfHeight;
+                float right = centerX + halfWidth;
+                float bottom = centerY + halfHeight;
+
+                if (outlined) {
+                    Path path = mOutlines.getPath((color & 0x00ffffff) | (ringAlpha << 24));
+                    float strokeWidth = mFrameConfig.getStrokeWidth()
+                            * (1 - mFrameConfig.getStrokeTaper() * value);
+                    if (rectangle) {
+                        ((PulseRoundedRectangle) shape).addOutline(path, left, top, right, bottom,
+                                radius, strokeWidth);
+                    } else {
+                        shape.addOutline(path, value * maxScale, strokeWidth);
+                    }
+                } else {
+                    paint.setColor(color);
+                    paint.setAlpha(ringAlpha);
+                    if (rectangle) {
+                        ((PulseRoundedRectangle) shape).setRingBounds(left, top, right, bottom);
+                        canvas.drawRoundRect(left, top, right, bottom, radius, radius, paint);
+                    } else {
+                        shape.draw(canvas, value * maxScale);
+                    }
+                }
+            }
+
+            if (outlined) {
+                mOutlines.draw(canvas, mOutlinePaint);
+            }
+            return running;
+        }
+    }
+}
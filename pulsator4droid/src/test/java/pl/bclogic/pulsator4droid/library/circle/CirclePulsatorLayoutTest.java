@@ -0,0 +1,110 @@
+package pl.bclogic.pulsator4droid.library.circle;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Path;
+import android.view.View;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Behavior of {@link CirclePulsatorLayout} which the scenarios do not check on their own.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class CirclePulsatorLayoutTest {
+
+    private static final float MASK_RADIUS = 30;
+
+    private ActivityController<Activity> mController;
+    private Activity mActivity;
+
+    @Before
+    public void setUp() {
+        mController = Robolectric.buildActivity(Activity.class).setup();
+        mActivity = mController.get();
+    }
+
+    @After
+    public void tearDown() {
+        mController.pause().stop().destroy();
+    }
+
+    @Test
+    public void circularMaskSurvivesStart() {
+        MaskedPulsator pulsator = new MaskedPulsator(mActivity);
+        mActivity.setContentView(pulsator);
+
+        // the documented order: the rings are only built by the start
+        pulsator.setCenterCircularMaskRadius(MASK_RADIUS);
+        pulsator.start();
+        assertFalse("Mask not drawn after start", pulsator.willNotDraw());
+
+        // rebuilding the rings while running keeps the mask as well
+        pulsator.setCount(pulsator.getCount() + 1);
+        assertFalse("Mask not drawn after rebuild", pulsator.willNotDraw());
+
+        ShadowLooper.idleMainLooper();
+        Bitmap bitmap = Bitmap.createBitmap(pulsator.getWidth(), pulsator.getHeight(),
+                Bitmap.Config.ARGB_8888);
+        pulsator.draw(new Canvas(bitmap));
+        assertNotNull("Mask not built by the draw", pulsator.getMask());
+    }
+
+    @Test
+    public void hardwareLayersOnlyWhileAnimating() {
+        CirclePulsatorLayout pulsator = new CirclePulsatorLayout(mActivity);
+        mActivity.setContentView(pulsator);
+        pulsator.setHardwareLayersWhileAnimating(true);
+
+        pulsator.start();
+        assertTrue(pulsator.isStarted());
+        assertRingLayers(pulsator, View.LAYER_TYPE_HARDWARE);
+
+        pulsator.stop();
+        assertFalse(pulsator.isStarted());
+        assertRingLayers(pulsator, View.LAYER_TYPE_NONE);
+
+        // turning the option off while running releases the layers at once
+        pulsator.start();
+        pulsator.setHardwareLayersWhileAnimating(false);
+        assertRingLayers(pulsator, View.LAYER_TYPE_NONE);
+    }
+
+    private static void assertRingLayers(CirclePulsatorLayout pulsator, int layerType) {
+        assertTrue("No rings built by the start", pulsator.getChildCount() > 0);
+        for (int i = 0; i < pulsator.getChildCount(); i++) {
+            assertEquals("Layer of ring " + i, layerType,
+                    pulsator.getChildAt(i).getLayerType());
+        }
+    }
+
+    /**
+     * Exposes the mask built by the layout.
+     */
+    private static class MaskedPulsator extends CirclePulsatorLayout {
+
+        MaskedPulsator(Context context) {
+            super(context);
+        }
+
+        Path getMask() {
+            return mMask;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package pl.bclogic.pulsator4droid.library.field;
+
+import android.graphics.Color;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import pl.bclogic.pulsator4droid.library.PulseShape;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Bookkeeping of the emitters of {@link PulseField}: ids, the dense slots behind them and
+ * capacity changes while emitters are alive.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PulseFieldTest {
+
+    private static final float SIZE = 40;
+
+    private PulseField mField;
+
+    @Before
+    public void setUp() {
+        mField = new PulseField(RuntimeEnvironment.application);
+    }
+
+    @Test
+    public void addHandsOutDistinctIds() {
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < mField.getCapacity(); i++) {
+            assertTrue("Id handed out twice", ids.add(addEmitter(i)));
+        }
+        assertEquals(mField.getCapacity(), mField.getEmitterCount());
+
+        try {
+            addEmitter(-1);
+            fail("Emitter added beyond the capacity");
+        } catch (IllegalStateException expected) {
+            // the capacity only changes through setCapacity
+        }
+    }
+
+    @Test
+    public void removeKeepsTheOtherEmitters() {
+        int first = addEmitter(1);
+        int second = addEmitter(2);
+        int last = addEmitter(3);
+
+        // the last emitter is moved into the slot of the first one
+        mField.removeEmitter(first);
+        assertEquals(2, mField.getEmitterCount());
+        assertEmitter(second, 2);
+        assertEmitter(last, 3);
+        assertUnknown(first);
+
+        // the moved emitter is still found by its id
+        mField.moveEmitter(last, 30, 31);
+        assertEquals(30, mField.getEmitterX(last), 0);
+        assertEquals(31, mField.getEmitterY(last), 0);
+        assertEmitter(second, 2);
+
+        mField.removeEmitter(last);
+        assertEquals(1, mField.getEmitterCount());
+        assertEmitter(second, 2);
+        assertUnknown(last);
+    }
+
+    @Test
+    public void removedIdsAreReused() {
+        addEmitter(1);
+        int second = addEmitter(2);
+        int third = addEmitter(3);
+
+        // free ids are kept on a stack, the last one freed is handed out first
+        mField.removeEmitter(second);
+        mField.removeEmitter(third);
+        assertEquals(third, addEmitter(4));
+        assertEquals(second, addEmitter(5));
+        assertEmitter(third, 4);
+        assertEmitter(second, 5);
+    }
+
+    @Test
+    public void clearFreesAllIds() {
+        for (int i = 0; i < mField.getCapacity(); i++) {
+            addEmitter(i);
+        }
+
+        mField.clearEmitters();
+        assertEquals(0, mField.getEmitterCount());
+        for (int i = 0; i < mField.getCapacity(); i++) {
+            addEmitter(i);
+        }
+        assertEquals(mField.getCapacity(), mField.getEmitterCount());
+    }
+
+    @Test
+    public void growingKeepsLiveEmitters() {
+        int capacity = mField.getCapacity();
+        int[] ids = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ids[i] = addEmitter(i);
+        }
+
+        // leave holes, so that the free ids of the old capacity have to be kept as well
+        for (int i = 0; i < capacity; i += 3) {
+            mField.removeEmitter(ids[i]);
+        }
+        int alive = mField.getEmitterCount();
+
+        mField.setCapacity(capacity * 2);
+        assertEquals(capacity * 2, mField.getCapacity());
+        assertEquals(alive, mField.getEmitterCount());
+        Set<Integer> liveIds = new HashSet<>();
+        for (int i = 0; i < capacity; i++) {
+            if (i % 3 == 0) {
+                assertUnknown(ids[i]);
+            } else {
+                assertEmitter(ids[i], i);
+                liveIds.add(ids[i]);
+            }
+        }
+
+        // every free id, old or new, is handed out exactly once
+        for (int i = alive; i < capacity * 2; i++) {
+            assertTrue("Id handed out twice", liveIds.add(addEmitter(100 + i)));
+        }
+        try {
+            addEmitter(-1);
+            fail("Emitter added beyond the new capacity");
+        } catch (IllegalStateException expected) {
+            // full again
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityCannotShrink() {
+        mField.setCapacity(mField.getCapacity() - 1);
+    }
+
+    /**
+     * Add an emitter whose position and color are derived from a value, to recognize it later.
+     */
+    private int addEmitter(int value) {
+        return mField.addEmitter(value, value + 0.5f, SIZE, SIZE, Color.rgb(0, 0, value & 0xff),
+                PulseShape.SHAPE_CIRCLE);
+    }
+
+    private void assertEmitter(int id, int value) {
+        assertEquals("X of emitter " + id, value, mField.getEmitterX(id), 0);
+        assertEquals("Y of emitter " + id, value + 0.5f, mField.getEmitterY(id), 0);
+        assertEquals("Color of emitter " + id, Color.rgb(0, 0, value & 0xff),
+                mField.getEmitterColor(id));
+    }
+
+    private void assertUnknown(int id) {
+        try {
+            mField.getEmitterX(id);
+            fail("Removed emitter " + id + " still known");
+        } catch (IllegalArgumentException expected) {
+            // ids of removed emitters are rejected until handed out again
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package pl.bclogic.pulsator4droid.library.circle;
+
+/**
+ * Gives the scenarios access to the animator count of {@link CirclePulsatorLayout}, which is
+ * only visible to its own package.
+ */
+public final class CircleAnimatorCounter {
+
+    private CircleAnimatorCounter() {
+    }
+
+    /**
+     * Get the number of ring animators a pulsator has built since it has been created.
+     *
+     * @param pulsator Pulsator to count the animators of
+     * @return Number of animators built so far
+     */
+    public static int getAnimatorsCreated(CirclePulsatorLayout pulsator) {
+        return pulsator.getAnimatorsCreated();
+    }
+}
@@ -0,0 +1,70 @@
+package pl.bclogic.pulsator4droid.scenarios;
+
+import android.app.Activity;
+import android.view.LayoutInflater;
+import android.widget.FrameLayout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+
+import pl.bclogic.pulsator4droid.library.PulsatorLayout;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Cost of inflating a {@link PulsatorLayout} from XML, reported like the scenarios. The first
+ * inflation of the run is reported on its own as the closest the JVM gets to a cold start, the
+ * following ones as a warm batch. The view and animator counts are exact, so they prove what an
+ * inflation builds independently of the noise of the timings: a pulsator inflates into a single
+ * view, its rings and animators are only built once started.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class InflationBenchmarkTest {
+
+    private static final int INSTANCES = 500;
+
+    @Test
+    public void inflation() throws Exception {
+        ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class).setup();
+        Activity activity = controller.get();
+        LayoutInflater inflater = LayoutInflater.from(activity);
+        FrameLayout parent = new FrameLayout(activity);
+
+        ScenarioProbe first = new ScenarioProbe("inflationFirst",
+                Collections.<String, Object>singletonMap("instances", 1));
+        first.begin();
+        inflate(inflater, parent, first);
+        first.end();
+
+        ScenarioProbe warm = new ScenarioProbe("inflation",
+                Collections.<String, Object>singletonMap("instances", INSTANCES));
+        warm.begin();
+        for (int i = 0; i < INSTANCES; i++) {
+            inflate(inflater, parent, warm);
+        }
+        warm.end();
+
+        controller.pause().stop().destroy();
+
+        assertEquals(1, first.getViewsCreated());
+        assertEquals(INSTANCES, warm.getViewsCreated());
+        assertEquals(0, first.getAnimatorsCreated());
+        assertEquals(0, warm.getAnimatorsCreated());
+        ScenarioReport.write(first);
+        ScenarioReport.write(warm);
+    }
+
+    private static void inflate(LayoutInflater inflater, FrameLayout parent,
+            ScenarioProbe probe) {
+        PulsatorLayout pulsator = (PulsatorLayout) inflater.inflate(
+                R.layout.scenario_pulsator, parent, false);
+        probe.watch(pulsator);
+    }
+}
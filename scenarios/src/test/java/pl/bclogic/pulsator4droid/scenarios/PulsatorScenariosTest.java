@@ -0,0 +1,358 @@
+package pl.bclogic.pulsator4droid.scenarios;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+import android.widget.SeekBar;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import pl.bclogic.pulsator4droid.library.PulsatorLayout;
+import pl.bclogic.pulsator4droid.library.circle.CirclePulsatorLayout;
+import pl.bclogic.pulsator4droid.library.roundedrectangle.RoundedRectanglePulsatorLayout;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Stress scenarios for whole screens of pulsators. Every scenario runs twice in a fresh activity,
+ * the first run only warms up the code paths; the second one is measured by a
+ * {@link ScenarioProbe} and reported by {@link ScenarioReport}. Frames are produced by advancing
+ * the main looper by a frame interval and drawing the content view.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PulsatorScenariosTest {
+
+    private static final long FRAME_MILLIS = 16;
+    private static final int CELL_SIZE = 120;
+
+    private static final int GRID_PULSATORS = 64;
+    private static final int GRID_COLUMNS = 8;
+    private static final int GRID_FRAMES = 60;
+
+    private static final int SWEEPS = 5;
+
+    private static final int LIST_ITEMS = 200;
+    private static final int LIST_SCROLL_STEPS = 300;
+    private static final int LIST_SCROLL_DISTANCE = 60;
+
+    private static final int MASK_TOGGLES = 200;
+
+    private interface Scenario {
+
+        void run(Activity activity, ScenarioProbe probe);
+    }
+
+    @Test
+    public void grid() throws Exception {
+        run("grid", parameters("pulsators", GRID_PULSATORS, "columns", GRID_COLUMNS,
+                "frames", GRID_FRAMES), new Scenario() {
+
+            @Override
+            public void run(Activity activity, ScenarioProbe probe) {
+                LinearLayout grid = new LinearLayout(activity);
+                grid.setOrientation(LinearLayout.VERTICAL);
+                List<PulsatorLayout> pulsators = new ArrayList<>(GRID_PULSATORS);
+
+                LinearLayout row = null;
+                for (int i = 0; i < GRID_PULSATORS; i++) {
+                    if (i % GRID_COLUMNS == 0) {
+                        row = new LinearLayout(activity);
+                        grid.addView(row, new LinearLayout.LayoutParams(
+                                ViewGroup.LayoutParams.MATCH_PARENT, CELL_SIZE));
+                    }
+
+                    // both kinds of layouts side by side, the rounded ones need a mask to draw
+                    PulsatorLayout pulsator;
+                    if (i % 2 == 0) {
+                        pulsator = new CirclePulsatorLayout(activity);
+                    } else {
+                        RoundedRectanglePulsatorLayout rectangle =
+                                new RoundedRectanglePulsatorLayout(activity);
+                        rectangle.setCenterRoundedRectangleMask(CELL_SIZE / 4, CELL_SIZE / 4);
+                        pulsator = rectangle;
+                    }
+                    probe.watch(pulsator);
+                    row.addView(pulsator, new LinearLayout.LayoutParams(0, CELL_SIZE, 1));
+                    pulsators.add(pulsator);
+                }
+                activity.setContentView(grid);
+
+                for (PulsatorLayout pulsator : pulsators) {
+                    pulsator.start();
+                }
+                advanceFrames(grid, GRID_FRAMES);
+            }
+
+        });
+    }
+
+    @Test
+    public void sliderSweepCircle() throws Exception {
+        sliderSweep("sliderSweepCircle", true);
+    }
+
+    @Test
+    public void sliderSweepRoundedRectangle() throws Exception {
+        sliderSweep("sliderSweepRoundedRectangle", false);
+    }
+
+    /**
+     * The count and duration sliders of the demo {@code MainActivity}, with the same ranges and
+     * the same mapping of the progress to the pulse, dragged from end to end and back. The demo
+     * is an application module and cannot be depended on, so its flow is mirrored here. The
+     * duration slider is not dragged down to 0 though, the 0 ms pulse the demo would then set is
+     * not a valid input.
+     */
+    private void sliderSweep(String name, final boolean circle) throws Exception {
+        run(name, parameters("sweeps", SWEEPS), new Scenario() {
+
+            @Override
+            public void run(Activity activity, ScenarioProbe probe) {
+                LinearLayout content = new LinearLayout(activity);
+                content.setOrientation(LinearLayout.VERTICAL);
+
+                final PulsatorLayout pulsator;
+                if (circle) {
+                    pulsator = new CirclePulsatorLayout(activity);
+                } else {
+                    RoundedRectanglePulsatorLayout rectangle =
+                            new RoundedRectanglePulsatorLayout(activity);
+                    rectangle.setCenterRoundedRectangleMask(CELL_SIZE / 2, CELL_SIZE / 2);
+                    pulsator = rectangle;
+                }
+                probe.watch(pulsator);
+
+                SeekBar countSeek = new SeekBar(activity);
+                countSeek.setMax(9);
+                countSeek.setOnSeekBarChangeListener(new SimpleSeekBarListener() {
+
+                    @Override
+                    public void onProgressChanged(SeekBar seekBar, int progress,
+                            boolean fromUser) {
+                        pulsator.setCount(progress + 1);
+                    }
+
+                });
+                SeekBar durationSeek = new SeekBar(activity);
+                durationSeek.setMax(100);
+                durationSeek.setOnSeekBarChangeListener(new SimpleSeekBarListener() {
+
+                    @Override
+                    public void onProgressChanged(SeekBar seekBar, int progress,
+                            boolean fromUser) {
+                        pulsator.setDuration(progress * 100);
+                    }
+
+                });
+
+                content.addView(countSeek);
+                content.addView(durationSeek);
+                content.addView(pulsator, new LinearLayout.LayoutParams(
+                        ViewGroup.LayoutParams.MATCH_PARENT, 0, 1));
+                activity.setContentView(content);
+
+                countSeek.setProgress(pulsator.getCount() - 1);
+                durationSeek.setProgress(pulsator.getDuration() / 100);
+                pulsator.start();
+
+                for (int sweep = 0; sweep < SWEEPS; sweep++) {
+                    drag(countSeek, 0, content);
+                    drag(durationSeek, 1, content);
+                }
+            }
+
+        });
+    }
+
+    @Test
+    public void recyclerViewChurn() throws Exception {
+        run("recyclerViewChurn", parameters("items", LIST_ITEMS, "scrollSteps", LIST_SCROLL_STEPS,
+                "scrollDistance", LIST_SCROLL_DISTANCE), new Scenario() {
+
+            @Override
+            public void run(Activity activity, ScenarioProbe probe) {
+                RecyclerView list = new RecyclerView(activity);
+                list.setLayoutManager(new LinearLayoutManager(activity));
+                list.setAdapter(new PulsatorAdapter(probe));
+                activity.setContentView(list);
+                advanceFrames(list, 1);
+
+                // down and back up, every item scrolled out is detached and attached again
+                for (int step = 0; step < LIST_SCROLL_STEPS; step++) {
+                    list.scrollBy(0, step < LIST_SCROLL_STEPS / 2
+                            ? LIST_SCROLL_DISTANCE : -LIST_SCROLL_DISTANCE);
+                    advanceFrames(list, 1);
+                }
+            }
+
+        });
+    }
+
+    @Test
+    public void maskToggling() throws Exception {
+        run("maskToggling", parameters("toggles", MASK_TOGGLES), new Scenario() {
+
+            @Override
+            public void run(Activity activity, ScenarioProbe probe) {
+                LinearLayout content = new LinearLayout(activity);
+                CirclePulsatorLayout circle = new CirclePulsatorLayout(activity);
+                RoundedRectanglePulsatorLayout rectangle =
+                        new RoundedRectanglePulsatorLayout(activity);
+                probe.watch(circle);
+                probe.watch(rectangle);
+                content.addView(circle, new LinearLayout.LayoutParams(0, CELL_SIZE * 2, 1));
+                content.addView(rectangle, new LinearLayout.LayoutParams(0, CELL_SIZE * 2, 1));
+                activity.setContentView(content);
+
+                circle.start();
+                rectangle.start();
+
+                for (int i = 0; i < MASK_TOGGLES; i++) {
+                    boolean masked = i % 2 == 0;
+                    circle.setCenterCircularMaskRadius(masked ? CELL_SIZE / 2 : 0);
+                    rectangle.setCenterRoundedRectangleMask(
+                            masked ? CELL_SIZE : 0, masked ? CELL_SIZE / 2 : 0);
+                    advanceFrames(content, 1);
+                }
+            }
+
+        });
+    }
+
+    private static void run(String name, Map<String, Object> parameters, Scenario scenario)
+            throws Exception {
+        ScenarioProbe probe = null;
+        for (int pass = 0; pass < 2; pass++) {
+            ActivityController<Activity> controller =
+                    Robolectric.buildActivity(Activity.class).setup();
+
+            probe = new ScenarioProbe(name, parameters);
+            probe.begin();
+            scenario.run(controller.get(), probe);
+            probe.end();
+
+            controller.pause().stop().destroy();
+        }
+
+        assertTrue(name + " created no views", probe.getViewsCreated() > 0);
+        ScenarioReport.write(probe);
+    }
+
+    private static Map<String, Object> parameters(Object... keysAndValues) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            parameters.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return parameters;
+    }
+
+    private static void drag(SeekBar seekBar, int min, View content) {
+        for (int progress = min; progress <= seekBar.getMax(); progress++) {
+            seekBar.setProgress(progress);
+            advanceFrames(content, 1);
+        }
+        for (int progress = seekBar.getMax(); progress >= min; progress--) {
+            seekBar.setProgress(progress);
+            advanceFrames(content, 1);
+        }
+    }
+
+    private static void advanceFrames(View content, int frames) {
+        for (int i = 0; i < frames; i++) {
+            ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+            if (content.getWidth() > 0 && content.getHeight() > 0) {
+                content.draw(FrameCanvas.get(content));
+            }
+        }
+    }
+
+    /**
+     * Canvas the frames are drawn into, reused while the size does not change so that the
+     * scenarios measure the pulsators rather than the frame buffer.
+     */
+    private static final class FrameCanvas {
+
+        private static Bitmap sBitmap;
+        private static Canvas sCanvas;
+
+        static Canvas get(View content) {
+            if (sBitmap == null || sBitmap.getWidth() != content.getWidth()
+                    || sBitmap.getHeight() != content.getHeight()) {
+                sBitmap = Bitmap.createBitmap(content.getWidth(), content.getHeight(),
+                        Bitmap.Config.ARGB_8888);
+                sCanvas = new Canvas(sBitmap);
+            }
+            return sCanvas;
+        }
+    }
+
+    private static class PulsatorAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+        private final ScenarioProbe mProbe;
+
+        PulsatorAdapter(ScenarioProbe probe) {
+            mProbe = probe;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            CirclePulsatorLayout pulsator = new CirclePulsatorLayout(parent.getContext());
+            pulsator.setLayoutParams(new RecyclerView.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, CELL_SIZE));
+            mProbe.watch(pulsator);
+            return new RecyclerView.ViewHolder(pulsator) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+            ((PulsatorLayout) holder.itemView).setCount(position % 4 + 2);
+        }
+
+        @Override
+        public void onViewAttachedToWindow(RecyclerView.ViewHolder holder) {
+            // detaching cancels the animators, so the pulse is restarted on every attach
+            PulsatorLayout pulsator = (PulsatorLayout) holder.itemView;
+            pulsator.start();
+        }
+
+        @Override
+        public int getItemCount() {
+            return LIST_ITEMS;
+        }
+    }
+
+    private static class SimpleSeekBarListener implements SeekBar.OnSeekBarChangeListener {
+
+        @Override
+        public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+        }
+
+        @Override
+        public void onStartTrackingTouch(SeekBar seekBar) {
+        }
+
+        @Override
+        public void onStopTrackingTouch(SeekBar seekBar) {
+        }
+    }
+}
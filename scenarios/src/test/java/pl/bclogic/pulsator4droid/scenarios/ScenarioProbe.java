@@ -0,0 +1,137 @@
+package pl.bclogic.pulsator4droid.scenarios;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import pl.bclogic.pulsator4droid.library.PulsatorLayout;
+import pl.bclogic.pulsator4droid.library.circle.CircleAnimatorCounter;
+import pl.bclogic.pulsator4droid.library.circle.CirclePulsatorLayout;
+
+/**
+ * Measures a single run of a scenario: wall time and bytes allocated by the running thread
+ * between {@link #begin()} and {@link #end()}, plus the views and animators created by the
+ * pulsators it has been told about.
+ *
+ * <p>Views are counted as they are added to a watched pulsator. Animators are counted by every
+ * {@link CirclePulsatorLayout} itself, the probe takes the difference of these counts between
+ * {@link #watch(PulsatorLayout)} and {@link #end()}.
+ */
+final class ScenarioProbe {
+
+    private final String mName;
+    private final Map<String, Object> mParameters;
+
+    // watched pulsators and their animator counts when watched, held until the end of the run
+    private final Map<CirclePulsatorLayout, Integer> mAnimatorBaselines = new LinkedHashMap<>();
+    private final ViewGroup.OnHierarchyChangeListener mHierarchyListener =
+            new ViewGroup.OnHierarchyChangeListener() {
+
+                @Override
+                public void onChildViewAdded(View parent, View child) {
+                    mViewsCreated++;
+                }
+
+                @Override
+                public void onChildViewRemoved(View parent, View child) {
+                }
+
+            };
+
+    private long mStartNanos;
+    private long mStartBytes;
+    private long mWallTimeNanos;
+    private long mAllocatedBytes;
+    private int mViewsCreated;
+    private int mAnimatorsCreated;
+
+    ScenarioProbe(String name, Map<String, Object> parameters) {
+        mName = name;
+        mParameters = new LinkedHashMap<>(parameters);
+    }
+
+    void begin() {
+        mStartBytes = allocatedBytes();
+        mStartNanos = System.nanoTime();
+    }
+
+    void end() {
+        mWallTimeNanos = System.nanoTime() - mStartNanos;
+        long endBytes = allocatedBytes();
+        mAllocatedBytes = mStartBytes < 0 || endBytes < 0 ? -1 : endBytes - mStartBytes;
+
+        mAnimatorsCreated = 0;
+        for (Map.Entry<CirclePulsatorLayout, Integer> baseline : mAnimatorBaselines.entrySet()) {
+            mAnimatorsCreated += CircleAnimatorCounter.getAnimatorsCreated(baseline.getKey())
+                    - baseline.getValue();
+        }
+    }
+
+    /**
+     * Count a view created by the scenario itself, e.g. an item of a list.
+     */
+    void viewCreated() {
+        mViewsCreated++;
+    }
+
+    /**
+     * Start counting the rings and animators of a pulsator created by the scenario. The pulsator
+     * itself and the rings it has built in its constructor are counted right away.
+     *
+     * @param pulsator Newly created pulsator
+     */
+    void watch(PulsatorLayout pulsator) {
+        mViewsCreated += 1 + pulsator.getChildCount();
+        pulsator.setOnHierarchyChangeListener(mHierarchyListener);
+        if (pulsator instanceof CirclePulsatorLayout) {
+            CirclePulsatorLayout circle = (CirclePulsatorLayout) pulsator;
+            mAnimatorBaselines.put(circle, CircleAnimatorCounter.getAnimatorsCreated(circle));
+        }
+    }
+
+    String getName() {
+        return mName;
+    }
+
+    Map<String, Object> getParameters() {
+        return mParameters;
+    }
+
+    long getWallTimeNanos() {
+        return mWallTimeNanos;
+    }
+
+    long getAllocatedBytes() {
+        return mAllocatedBytes;
+    }
+
+    int getViewsCreated() {
+        return mViewsCreated;
+    }
+
+    int getAnimatorsCreated() {
+        return mAnimatorsCreated;
+    }
+
+    /**
+     * Get the bytes allocated so far by the current thread, which runs both the scenario and the
+     * main looper under Robolectric.
+     *
+     * @return Allocated bytes or -1 if the JVM does not track them
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (threads.isThreadAllocatedMemorySupported()
+                    && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
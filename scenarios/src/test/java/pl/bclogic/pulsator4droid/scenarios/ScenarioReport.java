@@ -0,0 +1,100 @@
+package pl.bclogic.pulsator4droid.scenarios;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Machine-readable report of a scenario run, written as JSON into
+ * {@code <scenarios.reportDir>/<name>.json} so that the reports of two commits can be compared
+ * file by file:
+ *
+ * <pre>
+ * {
+ *   "name": "grid",
+ *   "parameters": {"pulsators": 64, "frames": 60},
+ *   "wallTimeMillis": 123.456,
+ *   "allocatedBytes": 1234567,
+ *   "viewsCreated": 320,
+ *   "animatorsCreated": 384
+ * }
+ * </pre>
+ *
+ * <p>The parameters are listed in the order they have been given. {@code allocatedBytes} is -1
+ * when the JVM does not track allocations. Each scenario gets a file of its own as the scenarios
+ * may run in separate Robolectric sandboxes.
+ */
+final class ScenarioReport {
+
+    private static final String REPORT_DIR_PROPERTY = "scenarios.reportDir";
+    private static final String DEFAULT_REPORT_DIR = "build/reports/scenarios";
+
+    private ScenarioReport() {
+    }
+
+    /**
+     * Write the report of a run into the directory given by the {@code scenarios.reportDir}
+     * system property.
+     *
+     * @param probe Probe of the finished run
+     * @return The written file
+     */
+    static File write(ScenarioProbe probe) throws IOException {
+        File dir = new File(System.getProperty(REPORT_DIR_PROPERTY, DEFAULT_REPORT_DIR));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+
+        File file = new File(dir, probe.getName() + ".json");
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(toJson(probe));
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    static String toJson(ScenarioProbe probe) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"name\": ").append(quote(probe.getName())).append(",\n");
+        json.append("  \"parameters\": {");
+        boolean first = true;
+        for (Map.Entry<String, Object> parameter : probe.getParameters().entrySet()) {
+            json.append(first ? "" : ", ").append(quote(parameter.getKey())).append(": ");
+            Object value = parameter.getValue();
+            json.append(value instanceof Number || value instanceof Boolean
+                    ? value.toString() : quote(String.valueOf(value)));
+            first = false;
+        }
+        json.append("},\n");
+        json.append("  \"wallTimeMillis\": ")
+                .append(String.format(Locale.US, "%.3f", probe.getWallTimeNanos() / 1e6))
+                .append(",\n");
+        json.append("  \"allocatedBytes\": ").append(probe.getAllocatedBytes()).append(",\n");
+        json.append("  \"viewsCreated\": ").append(probe.getViewsCreated()).append(",\n");
+        json.append("  \"animatorsCreated\": ").append(probe.getAnimatorsCreated()).append("\n");
+        json.append("}\n");
+        return json.toString();
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format(Locale.US, "\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}